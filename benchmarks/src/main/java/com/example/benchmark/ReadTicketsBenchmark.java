@@ -0,0 +1,96 @@
+package com.example.benchmark;
+
+import com.example.enums.TicketDecoderType;
+import com.example.enums.TicketSourceType;
+import com.example.mapper.TicketsMapper;
+import com.example.model.Ticket;
+import com.example.model.TicketSnapshot;
+import com.example.model.TicketTable;
+import com.example.service.TicketService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest throughput of the ticket readers. Run with {@code -prof gc} to see allocation rates.
+ * <p>
+ * The FILE source resolves classpath resources only, so file ingest is measured on the same Jackson
+ * path fed from a generated file on disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadTicketsBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private final TicketService ticketService = new TicketService();
+    private String json;
+    private Path file;
+    private Path snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        json = TicketGenerator.json(rows, 42);
+        file = Files.createTempFile("tickets-" + rows + "-", ".json");
+        TicketGenerator.writeJson(file, rows, 42);
+        snapshot = Files.createTempFile("tickets-" + rows + "-", ".snapshot");
+        TicketSnapshot.write(ticketService.readTicketTable(json, TicketSourceType.API), snapshot);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(snapshot);
+    }
+
+    @Benchmark
+    public List<Ticket> readTicketsApi() {
+        return ticketService.readTickets(json, TicketSourceType.API);
+    }
+
+    @Benchmark
+    public TicketTable readTicketTableApi() {
+        return ticketService.readTicketTable(json, TicketSourceType.API);
+    }
+
+    @Benchmark
+    public TicketTable readTicketTableApiNative() {
+        return ticketService.readTicketTable(json, TicketSourceType.API, TicketDecoderType.NATIVE);
+    }
+
+    @Benchmark
+    public TicketTable openSnapshot() throws IOException {
+        return TicketSnapshot.open(snapshot);
+    }
+
+    @Benchmark
+    public void streamTicketsFile(Blackhole blackhole) throws IOException {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(file))) {
+            TicketsMapper.readTickets(inputStream, blackhole::consume);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.benchmark;
+
+import com.example.model.Ticket;
+import com.example.model.TicketTable;
+import com.example.service.ParallelTicketService;
+import com.example.service.TicketService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the {@link TicketService} hot paths over synthetic datasets, sequential against
+ * {@link ParallelTicketService}. Run with {@code -prof gc} to see allocation rates, and pass
+ * {@code -p rows=...} for larger datasets; the list variants need roughly 1 KB of heap per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TicketAnalyticsBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"0"})
+    public int parallelism;
+
+    private final TicketService ticketService = new TicketService();
+    private ForkJoinPool pool;
+    private ParallelTicketService parallelTicketService;
+    private List<Ticket> tickets;
+    private TicketTable table;
+    private List<Ticket> routeTickets;
+    private int nextTicket;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = parallelism > 0 ? new ForkJoinPool(parallelism) : ForkJoinPool.commonPool();
+        parallelTicketService = new ParallelTicketService(ticketService, pool, ParallelTicketService.DEFAULT_THRESHOLD);
+        tickets = TicketGenerator.ticketList(rows, 42);
+        table = TicketTable.of(tickets);
+        routeTickets = ticketService.getTicketsWithOriginAndDestination(
+                tickets, TicketGenerator.ORIGIN, TicketGenerator.DESTINATION);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != ForkJoinPool.commonPool()) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Map<String, Duration> minimalTimeForEachCarrierList() {
+        return ticketService.getMinimalTimeForEachCarrier(tickets, TicketGenerator.ORIGIN, TicketGenerator.DESTINATION);
+    }
+
+    @Benchmark
+    public Map<String, Duration> minimalTimeForEachCarrierListParallel() {
+        return parallelTicketService.getMinimalTimeForEachCarrier(
+                tickets, TicketGenerator.ORIGIN, TicketGenerator.DESTINATION);
+    }
+
+    @Benchmark
+    public Map<String, Duration> minimalTimeForEachCarrierTable() {
+        return ticketService.getMinimalTimeForEachCarrier(table, TicketGenerator.ORIGIN, TicketGenerator.DESTINATION);
+    }
+
+    @Benchmark
+    public Map<String, Duration> minimalTimeForEachCarrierTableParallel() {
+        return parallelTicketService.getMinimalTimeForEachCarrier(
+                table, TicketGenerator.ORIGIN, TicketGenerator.DESTINATION);
+    }
+
+    @Benchmark
+    public BigDecimal averagePriceList() {
+        return ticketService.getAveragePrice(tickets);
+    }
+
+    @Benchmark
+    public BigDecimal averagePriceListParallel() {
+        return parallelTicketService.getAveragePrice(tickets);
+    }
+
+    @Benchmark
+    public BigDecimal averagePriceTable() {
+        return ticketService.getAveragePrice(table);
+    }
+
+    @Benchmark
+    public BigDecimal averagePriceTableParallel() {
+        return parallelTicketService.getAveragePrice(table);
+    }
+
+    @Benchmark
+    public BigDecimal medianaPriceList() {
+        return ticketService.getMedianaPrice(tickets);
+    }
+
+    @Benchmark
+    public BigDecimal medianaPriceListParallel() {
+        return parallelTicketService.getMedianaPrice(tickets);
+    }
+
+    @Benchmark
+    public BigDecimal medianaPriceTable() {
+        return ticketService.getMedianaPrice(table);
+    }
+
+    /**
+     * Computes the duration of a different ticket on every invocation, cycling through the route.
+     */
+    @Benchmark
+    public Duration flightDuration() {
+        Ticket ticket = routeTickets.get(nextTicket);
+        nextTicket = nextTicket + 1 == routeTickets.size() ? 0 : nextTicket + 1;
+        return TicketService.getFlightDuration(ticket);
+    }
+}
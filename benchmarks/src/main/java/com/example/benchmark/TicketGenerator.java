@@ -0,0 +1,122 @@
+package com.example.benchmark;
+
+import com.example.model.Ticket;
+import com.example.utils.TimeUtils;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of synthetic tickets in the shape of {@code ticket/tickets.json}.
+ * Tickets are produced lazily and written with a streaming generator, so files of any size
+ * (up to hundreds of millions of rows) can be created with flat memory.
+ */
+public class TicketGenerator {
+
+    /**
+     * The route with known time zones used by duration queries.
+     */
+    public static final String ORIGIN = "VVO";
+    public static final String DESTINATION = "TLV";
+
+    private static final String[][] AIRPORTS = {
+            {"VVO", "Владивосток"}, {"TLV", "Тель-Авив"}, {"UFA", "Уфа"}, {"LRN", "Ларнака"}
+    };
+    private static final String[] CARRIERS = {"TK", "S7", "SU", "BA"};
+    private static final int MINUTES_PER_DAY = TimeUtils.MINUTES_PER_DAY;
+    private static final long FIRST_DAY = TimeUtils.epochDay(2018, 1, 1);
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    public static Iterator<Ticket> tickets(long rows, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return new Iterator<>() {
+            private long generated;
+
+            @Override
+            public boolean hasNext() {
+                return generated < rows;
+            }
+
+            @Override
+            public Ticket next() {
+                generated++;
+                return ticket(random);
+            }
+        };
+    }
+
+    public static List<Ticket> ticketList(int rows, long seed) {
+        List<Ticket> tickets = new ArrayList<>(rows);
+        tickets(rows, seed).forEachRemaining(tickets::add);
+        return tickets;
+    }
+
+    public static void writeJson(Path path, long rows, long seed) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(path.toFile(), JsonEncoding.UTF8)) {
+            write(generator, rows, seed);
+        }
+    }
+
+    public static String json(int rows, long seed) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            write(generator, rows, seed);
+        }
+        return writer.toString();
+    }
+
+    private static void write(JsonGenerator generator, long rows, long seed) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("tickets");
+        for (Iterator<Ticket> tickets = tickets(rows, seed); tickets.hasNext(); ) {
+            Ticket ticket = tickets.next();
+            generator.writeStartObject();
+            generator.writeStringField("origin", ticket.origin());
+            generator.writeStringField("origin_name", ticket.originName());
+            generator.writeStringField("destination", ticket.destination());
+            generator.writeStringField("destination_name", ticket.destinationName());
+            generator.writeStringField("departure_date", ticket.departureDate());
+            generator.writeStringField("departure_time", ticket.departureTime());
+            generator.writeStringField("arrival_date", ticket.arrivalDate());
+            generator.writeStringField("arrival_time", ticket.arrivalTime());
+            generator.writeStringField("carrier", ticket.carrier());
+            generator.writeNumberField("stops", ticket.stops());
+            generator.writeNumberField("price", Long.parseLong(ticket.price()));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private static Ticket ticket(SplittableRandom random) {
+        // Half of the tickets fly the queried route so that filters keep a realistic share
+        String[] origin = random.nextBoolean() ? AIRPORTS[0] : AIRPORTS[random.nextInt(AIRPORTS.length)];
+        String[] destination = random.nextBoolean() ? AIRPORTS[1] : AIRPORTS[random.nextInt(AIRPORTS.length)];
+        long day = FIRST_DAY + random.nextInt(365);
+        int departure = random.nextInt(MINUTES_PER_DAY);
+        int arrival = departure + 60 + random.nextInt(18 * 60);
+        return new Ticket(origin[0], origin[1], destination[0], destination[1],
+                date(day), time(departure),
+                date(day + arrival / MINUTES_PER_DAY), time(arrival % MINUTES_PER_DAY),
+                CARRIERS[random.nextInt(CARRIERS.length)], random.nextInt(4),
+                Integer.toString(5_000 + random.nextInt(30_000)));
+    }
+
+    private static String date(long epochDay) {
+        int[] date = TimeUtils.toDate(epochDay);
+        return String.format("%02d.%02d.%02d", date[2], date[1], date[0] % 100);
+    }
+
+    private static String time(int minuteOfDay) {
+        return String.format("%d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
@@ -1,39 +1,111 @@
 package com.example;
 
 import com.example.enums.TicketSourceType;
+import com.example.model.RouteStats;
 import com.example.model.Ticket;
+import com.example.service.TicketClient;
+import com.example.service.TicketQueryEngine;
+import com.example.service.TicketServer;
 import com.example.service.TicketService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
-import java.time.Duration;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
+/**
+ * Prints the report of the VVO-TLV route. With arguments, runs as a resident server or as its client:
+ * <pre>
+ * serve [--port N] [--source PATH]                           serves stdin and stdout, or the loopback port
+ * query [--port N] ORIGIN DESTINATION [FROM_DATE TO_DATE]    prints the report of a route from the server
+ * </pre>
+ */
 public class Main {
-    public static void main(String[] args) {
+
+    private static final String DEFAULT_SOURCE = "ticket/tickets.json";
+    private static final int RESULT_CACHE_SIZE = 1024;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals("serve")) {
+            serve(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("query")) {
+            System.exit(query(args));
+        }
+
         final Logger log = LoggerFactory.getLogger(Main.class);
         TicketService ticketService = new TicketService();
 
-        List<Ticket> tickets = ticketService.readTickets("ticket/tickets.json", TicketSourceType.FILE);
+        List<Ticket> tickets = ticketService.readTickets(DEFAULT_SOURCE, TicketSourceType.FILE);
         log.info("Successfully parsed " + tickets.size() + " tickets.");
 
         String origin = "VVO";
         String destination = "TLV";
-        Map<String, Duration> MinimalTimeForEachCarrierMap = ticketService.getMinimalTimeForEachCarrier(tickets, origin, destination);
-        for (Map.Entry<String, Duration> entry : MinimalTimeForEachCarrierMap.entrySet()) {
-            Duration duration = entry.getValue();
-            long hours = duration.toHours();
-            long minutes = duration.toMinutesPart();
-            System.out.printf("Carrier: %s, minimal flight time: %d hours %d min%n", entry.getKey(), hours, minutes);
-        }
-
-        List<Ticket> ticketsWithOriginAndDestination = ticketService.getTicketsWithOriginAndDestination(tickets, origin, destination);
-        BigDecimal averagePrice = ticketService.getAveragePrice(ticketsWithOriginAndDestination);
-        System.out.printf("Average price: %s%n", averagePrice);
-        BigDecimal medianaPrice = ticketService.getMedianaPrice(ticketsWithOriginAndDestination);
-        System.out.printf("Mediana price: %s%n", medianaPrice);
-        System.out.printf("Average price - mediana price: %s%n", averagePrice.subtract(medianaPrice));
+        RouteStats routeStats = ticketService.getRouteStats(tickets, origin, destination);
+        for (String line : TicketServer.formatRouteStats(routeStats)) {
+            System.out.println(line);
+        }
+    }
+
+    private static void serve(String[] args) throws IOException, InterruptedException {
+        Integer port = null;
+        String source = DEFAULT_SOURCE;
+        TicketSourceType sourceType = TicketSourceType.FILE;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(optionValue(args, ++i));
+                case "--source" -> {
+                    source = optionValue(args, ++i);
+                    sourceType = Files.isDirectory(Path.of(source)) ? TicketSourceType.DIRECTORY : TicketSourceType.PATH;
+                }
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        TicketQueryEngine engine = new TicketQueryEngine(new TicketService(), RESULT_CACHE_SIZE, null);
+        try (TicketServer server = new TicketServer(engine, source, sourceType)) {
+            server.load();
+            if (port == null) {
+                server.serveStandardStreams();
+            } else {
+                server.start(port);
+                server.awaitTermination();
+            }
+        }
+    }
+
+    private static int query(String[] args) throws IOException {
+        int port = TicketServer.DEFAULT_PORT;
+        List<String> request = new ArrayList<>(List.of("STATS"));
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--port")) {
+                port = Integer.parseInt(optionValue(args, ++i));
+            } else {
+                request.add(args[i]);
+            }
+        }
+
+        try (TicketClient client = new TicketClient(port)) {
+            List<String> response = client.send(String.join(" ", request));
+            if (!response.isEmpty() && response.get(0).startsWith("ERROR ")) {
+                System.err.println(response.get(0));
+                return 1;
+            }
+            for (String line : response) {
+                System.out.println(line);
+            }
+            return 0;
+        }
+    }
+
+    private static String optionValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option " + args[index - 1]);
+        }
+        return args[index];
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,9 @@
+package com.example.enums;
+
+/**
+ * Decoder used to read tickets into a {@link com.example.model.TicketTable}.
+ * JACKSON maps every ticket through Jackson databind, NATIVE decodes the JSON bytes directly into columns.
+ */
+public enum TicketDecoderType {
+    JACKSON, NATIVE
+}
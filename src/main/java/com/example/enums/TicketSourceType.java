@@ -1,5 +1,9 @@
 package com.example.enums;
 
+/**
+ * Where tickets are read from. API takes the JSON document itself, FILE a classpath resource path,
+ * PATH a filesystem path and DIRECTORY a directory of shard files; filesystem sources may be gzip-compressed.
+ */
 public enum TicketSourceType {
-    API, FILE
+    API, FILE, PATH, DIRECTORY
 }
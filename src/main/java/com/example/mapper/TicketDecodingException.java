@@ -0,0 +1,30 @@
+package com.example.mapper;
+
+import java.io.IOException;
+
+/**
+ * Signals malformed JSON or an invalid ticket found by {@link TicketTableDecoder}.
+ */
+public class TicketDecodingException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long offset;
+
+    public TicketDecodingException(String message, long offset) {
+        super(message + " at byte offset " + offset);
+        this.offset = offset;
+    }
+
+    public TicketDecodingException(String message, long offset, Throwable cause) {
+        super(message + " at byte offset " + offset, cause);
+        this.offset = offset;
+    }
+
+    /**
+     * @return The offset in the source document where the problem was found.
+     */
+    public long getOffset() {
+        return offset;
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.mapper;
+
+import com.example.model.Ticket;
+import com.example.model.TicketTable;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads ticket documents from the filesystem. Gzip-compressed files are recognized by their magic bytes
+ * and decompressed transparently, whatever their name.
+ * <p>
+ * A sharded input is a directory whose regular, non-hidden files are each a complete tickets document.
+ * Shards are read in parallel, one thread per shard up to the requested parallelism.
+ */
+public class TicketFiles {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int GZIP_MAGIC = 0x1F8B;
+    private static final int ZSTD_MAGIC = 0x28B52FFD;
+
+    // Tickets cross between threads in batches, and at most this many batches wait for the consumer
+    private static final int BATCH_SIZE = 512;
+    private static final int QUEUE_CAPACITY = 64;
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    /**
+     * Opens a file for buffered reading, decompressing it if it is gzip-compressed.
+     *
+     * @throws IOException if the file cannot be opened or uses an unsupported compression.
+     */
+    public static InputStream open(Path path) throws IOException {
+        return open(path, true);
+    }
+
+    /**
+     * @param buffered Whether a decompressed stream is buffered too; callers that read in large blocks skip
+     *                 that copy.
+     */
+    private static InputStream open(Path path, boolean buffered) throws IOException {
+        InputStream inputStream = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE);
+        try {
+            inputStream.mark(4);
+            byte[] magic = inputStream.readNBytes(4);
+            inputStream.reset();
+            if (magic.length >= 2 && ((magic[0] & 0xFF) << 8 | (magic[1] & 0xFF)) == GZIP_MAGIC) {
+                InputStream decompressed = new GZIPInputStream(inputStream, BUFFER_SIZE);
+                return buffered ? new BufferedInputStream(decompressed, BUFFER_SIZE) : decompressed;
+            }
+            if (magic.length == 4 && ((magic[0] & 0xFF) << 24 | (magic[1] & 0xFF) << 16 | (magic[2] & 0xFF) << 8
+                    | (magic[3] & 0xFF)) == ZSTD_MAGIC) {
+                throw new IOException("Zstandard-compressed files are not supported: " + path);
+            }
+            return inputStream;
+        } catch (IOException | RuntimeException e) {
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The shards of a sharded input: the regular, non-hidden files of the directory, sorted by name.
+     */
+    public static List<Path> listShards(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("Not a directory: " + directory);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().startsWith("."))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Opens a lazy stream over the tickets of a file, see {@link TicketsMapper#streamTickets(InputStream)}.
+     * Closing the stream closes the file.
+     */
+    public static Stream<Ticket> streamTickets(Path path) throws IOException {
+        InputStream inputStream = open(path);
+        try {
+            return TicketsMapper.streamTickets(inputStream);
+        } catch (IOException | RuntimeException e) {
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens one stream over the tickets of all shards, which are parsed in parallel by background threads.
+     * Tickets of one shard keep their document order, but tickets of different shards are interleaved in
+     * no particular order. Parsing failures surface as {@link UncheckedIOException}.
+     * Closing the stream stops the background threads.
+     *
+     * @param parallelism The maximum number of shards read at the same time.
+     */
+    public static Stream<Ticket> streamTickets(List<Path> shards, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        if (shards.isEmpty()) {
+            return Stream.empty();
+        }
+        ShardIterator iterator = new ShardIterator(shards, Math.min(parallelism, shards.size()));
+        Spliterator<Ticket> spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(iterator::close);
+    }
+
+    /**
+     * Decodes a file with {@link TicketTableDecoder}. The file, decompressed if needed, streams through the
+     * decoder's buffer and is never held in memory as a whole.
+     */
+    public static TicketTable decodeTable(Path path) throws IOException {
+        try (InputStream inputStream = open(path, false)) {
+            return TicketTableDecoder.decode(inputStream);
+        }
+    }
+
+    /**
+     * Decodes the shards in parallel with {@link TicketTableDecoder} and concatenates them in shard order.
+     *
+     * @param parallelism The maximum number of shards decoded at the same time.
+     * @throws IOException if a shard cannot be read or decoded.
+     */
+    public static TicketTable decodeTable(List<Path> shards, int parallelism) throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        ExecutorService executor = newExecutor(Math.max(1, Math.min(parallelism, shards.size())));
+        try {
+            List<Future<TicketTable>> tables = new ArrayList<>(shards.size());
+            for (Path shard : shards) {
+                tables.add(executor.submit(() -> decodeTable(shard)));
+            }
+            TicketTable.Builder builder = new TicketTable.Builder();
+            for (Future<TicketTable> table : tables) {
+                builder.addAll(table.get());
+            }
+            return builder.build();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Cannot decode shard", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while decoding shards", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ExecutorService newExecutor(int threads) {
+        return newExecutor(threads, "ticket-shard-reader-");
+    }
+
+    /**
+     * Creates a pool of daemon threads named with the prefix and a process-wide sequence number.
+     */
+    static ExecutorService newExecutor(int threads, String namePrefix) {
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    /**
+     * Consumer side of the shard readers: takes batches from the shared queue until every shard has finished.
+     */
+    private static class ShardIterator implements Iterator<Ticket> {
+
+        private static final Object END_OF_SHARD = new Object();
+
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final ExecutorService executor;
+        private int running;
+        private Iterator<Ticket> batch = Collections.emptyIterator();
+
+        ShardIterator(List<Path> shards, int parallelism) {
+            running = shards.size();
+            executor = newExecutor(parallelism);
+            for (Path shard : shards) {
+                executor.execute(() -> readShard(shard));
+            }
+            executor.shutdown();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean hasNext() {
+            while (!batch.hasNext()) {
+                if (running == 0) {
+                    return false;
+                }
+                Object next;
+                try {
+                    next = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for shard readers", e);
+                }
+                if (next == END_OF_SHARD) {
+                    running--;
+                } else if (next instanceof ShardFailure failure) {
+                    running = 0;
+                    close();
+                    throw failure.toException();
+                } else {
+                    batch = ((List<Ticket>) next).iterator();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Ticket next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return batch.next();
+        }
+
+        void close() {
+            executor.shutdownNow();
+        }
+
+        private void readShard(Path shard) {
+            try (Stream<Ticket> tickets = streamTickets(shard)) {
+                List<Ticket> ticketBatch = new ArrayList<>(BATCH_SIZE);
+                for (Iterator<Ticket> iterator = tickets.iterator(); iterator.hasNext(); ) {
+                    ticketBatch.add(iterator.next());
+                    if (ticketBatch.size() == BATCH_SIZE) {
+                        queue.put(ticketBatch);
+                        ticketBatch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                if (!ticketBatch.isEmpty()) {
+                    queue.put(ticketBatch);
+                }
+                queue.put(END_OF_SHARD);
+            } catch (InterruptedException e) {
+                // The consumer closed the stream
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                try {
+                    queue.put(new ShardFailure(shard, e));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private record ShardFailure(Path shard, Exception cause) {
+
+        RuntimeException toException() {
+            Throwable error = cause instanceof UncheckedIOException unchecked ? unchecked.getCause() : cause;
+            if (error instanceof IOException ioException) {
+                return new UncheckedIOException(new IOException("Cannot read shard " + shard, ioException));
+            }
+            return new IllegalStateException("Cannot read shard " + shard, error);
+        }
+    }
+}
@@ -0,0 +1,764 @@
+package com.example.mapper;
+
+import com.example.model.TicketTable;
+import com.example.utils.PriceUtils;
+import com.example.utils.TicketMetrics;
+import com.example.utils.TimeUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Decoder of the {@code tickets.json} format straight into a {@link TicketTable}, without Jackson.
+ * <p>
+ * The decoder works on UTF-8 bytes, either of a whole document in memory or of a stream read through a
+ * fixed-size buffer that is refilled as the document is consumed; the buffer only grows for a single ticket
+ * larger than itself. Dates, times, prices and stop counts are parsed from the bytes into primitives, and
+ * airport and carrier codes are interned through a byte-keyed cache, so a String is created only once per
+ * distinct code and airport name. Fields other than the
+ * {@link com.example.model.Ticket} ones are skipped, as are root fields other than "tickets".
+ * A byte order mark is ignored.
+ * <p>
+ * Instances hold the parsing state of one document and are created by the static methods.
+ */
+public class TicketTableDecoder {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[][] FIELD_NAMES = {
+            bytes("origin"), bytes("origin_name"), bytes("destination"), bytes("destination_name"),
+            bytes("departure_date"), bytes("departure_time"), bytes("arrival_date"), bytes("arrival_time"),
+            bytes("carrier"), bytes("stops"), bytes("price")
+    };
+    private static final int ORIGIN = 0;
+    private static final int ORIGIN_NAME = 1;
+    private static final int DESTINATION = 2;
+    private static final int DESTINATION_NAME = 3;
+    private static final int DEPARTURE_DATE = 4;
+    private static final int DEPARTURE_TIME = 5;
+    private static final int ARRIVAL_DATE = 6;
+    private static final int ARRIVAL_TIME = 7;
+    private static final int CARRIER = 8;
+    private static final int STOPS = 9;
+    private static final int PRICE = 10;
+    private static final int UNKNOWN_FIELD = -1;
+
+    private static final byte[] TICKETS_FIELD = bytes("tickets");
+
+    private final InputStream inputStream;
+    private byte[] bytes;
+    private int end;
+    private int pos;
+    // Offset in the document of bytes[0], which moves as a stream buffer is compacted
+    private long bufferOffset;
+    // Positions that a refill must keep in the buffer: the current ticket and the current name, or -1
+    private int mark = -1;
+    private int stringStart = -1;
+
+    private final TicketTable.Builder builder = new TicketTable.Builder();
+    private final CodeCache airports = new CodeCache();
+    private final CodeCache carriers = new CodeCache();
+    private String[] airportCodes = new String[16];
+    private boolean[] airportNamed = new boolean[16];
+
+    // Value ranges of the fields of the current ticket; a start of -1 means absent or null
+    private final int[] valueStarts = new int[FIELD_NAMES.length];
+    private final int[] valueEnds = new int[FIELD_NAMES.length];
+    private final boolean[] valueEscaped = new boolean[FIELD_NAMES.length];
+    private int stringEnd;
+    private boolean stringEscaped;
+    private int lastField = -1;
+
+    private TicketTableDecoder(byte[] bytes, int offset, int length) {
+        this.inputStream = null;
+        this.bytes = bytes;
+        this.pos = offset;
+        this.end = offset + length;
+    }
+
+    private TicketTableDecoder(InputStream inputStream, int bufferSize) {
+        this.inputStream = inputStream;
+        this.bytes = new byte[bufferSize];
+    }
+
+    /**
+     * @param json The UTF-8 encoded document.
+     * @throws TicketDecodingException if the document is malformed or a ticket is invalid.
+     */
+    public static TicketTable decode(byte[] json) throws TicketDecodingException {
+        return decode(json, 0, json.length);
+    }
+
+    public static TicketTable decode(byte[] json, int offset, int length) throws TicketDecodingException {
+        try {
+            return new TicketTableDecoder(json, offset, length).decodeAndRecord();
+        } catch (TicketDecodingException e) {
+            throw e;
+        } catch (IOException e) {
+            // Only a stream can fail to read
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Decodes the stream up to the end of the document through a buffer of {@link #DEFAULT_BUFFER_SIZE} bytes.
+     * The stream is not closed.
+     */
+    public static TicketTable decode(InputStream inputStream) throws IOException {
+        return decode(inputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize The initial size of the read buffer.
+     */
+    public static TicketTable decode(InputStream inputStream, int bufferSize) throws IOException {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        return new TicketTableDecoder(inputStream, bufferSize).decodeAndRecord();
+    }
+
+    /**
+     * Decodes a classpath resource, like {@link TicketsMapper#readTickets(String)}.
+     */
+    public static TicketTable decodeResource(String resourcePath) throws IOException {
+        try (InputStream inputStream = TicketsMapper.openResource(resourcePath)) {
+            return decode(inputStream);
+        }
+    }
+
+    private TicketTable decodeAndRecord() throws IOException {
+        long start = TicketMetrics.startTimer();
+        int documentStart = pos;
+        TicketTable table;
+        try {
+            table = decodeDocument();
+        } catch (TicketDecodingException e) {
+            TicketMetrics.recordParseError();
+            throw e;
+        }
+        TicketMetrics.recordIngest("decode", bufferOffset + end - documentStart, table.size(), start);
+        return table;
+    }
+
+    private TicketTable decodeDocument() throws IOException {
+        if (ensure(3) && bytes[pos] == (byte) 0xEF && bytes[pos + 1] == (byte) 0xBB && bytes[pos + 2] == (byte) 0xBF) {
+            pos += 3;
+        }
+        expect('{', "Expected a JSON object at the document root");
+        boolean ticketsRead = false;
+        if (peek() != '}') {
+            do {
+                int nameStart = readString();
+                boolean isTickets = !ticketsRead && nameEquals(nameStart, stringEnd, stringEscaped, TICKETS_FIELD);
+                expect(':', "Expected ':'");
+                if (isTickets) {
+                    readTickets();
+                    ticketsRead = true;
+                } else {
+                    skipValue();
+                }
+            } while (nextSeparator('}'));
+        }
+        pos++;
+        return builder.build();
+    }
+
+    private void readTickets() throws IOException {
+        int token = peek();
+        if (token == 'n') {
+            skipLiteral("null");
+            return;
+        }
+        if (token != '[') {
+            throw error("Field \"tickets\" must be an array");
+        }
+        pos++;
+        if (peek() == ']') {
+            pos++;
+            return;
+        }
+        do {
+            readTicket();
+        } while (nextSeparator(']'));
+        pos++;
+    }
+
+    private void readTicket() throws IOException {
+        if (peek() != '{') {
+            throw error("Expected a ticket object");
+        }
+        long ticketStart = offset();
+        mark = pos++;
+        Arrays.fill(valueStarts, -1);
+        if (peek() != '}') {
+            do {
+                int nameStart = readString();
+                int field = field(nameStart, stringEnd, stringEscaped);
+                expect(':', "Expected ':'");
+                if (field == UNKNOWN_FIELD) {
+                    skipValue();
+                } else {
+                    readFieldValue(field);
+                }
+            } while (nextSeparator('}'));
+        }
+        pos++;
+        addTicket(ticketStart);
+        mark = -1;
+    }
+
+    private void readFieldValue(int field) throws IOException {
+        int token = peek();
+        if (token == 'n') {
+            skipLiteral("null");
+            valueStarts[field] = -1;
+        } else if (token == '"') {
+            valueStarts[field] = readString();
+            valueEnds[field] = stringEnd;
+            valueEscaped[field] = stringEscaped;
+        } else if (field == STOPS || field == PRICE) {
+            valueStarts[field] = pos;
+            skipNumber();
+            valueEnds[field] = pos;
+            valueEscaped[field] = false;
+        } else {
+            throw error("Expected a string value");
+        }
+    }
+
+    private void addTicket(long ticketStart) throws TicketDecodingException {
+        try {
+            int origin = airportId(ORIGIN, ORIGIN_NAME);
+            int destination = airportId(DESTINATION, DESTINATION_NAME);
+            int carrier = carrierId();
+            int departure = epochMinutes(DEPARTURE_DATE, DEPARTURE_TIME);
+            int arrival = epochMinutes(ARRIVAL_DATE, ARRIVAL_TIME);
+            int stops = valueStarts[STOPS] < 0 ? 0 : parseStops();
+            builder.add(origin, destination, carrier, departure, arrival, stops, parsePrice(), priceScale());
+        } catch (RuntimeException e) {
+            throw new TicketDecodingException("Invalid ticket: " + e.getMessage(), ticketStart, e);
+        }
+    }
+
+    private int airportId(int codeField, int nameField) {
+        int id = codeId(codeField, airports, true);
+        if (!airportNamed[id] && valueStarts[nameField] >= 0) {
+            builder.airportId(airportCodes[id], stringValue(nameField));
+            airportNamed[id] = true;
+        }
+        return id;
+    }
+
+    private int carrierId() {
+        return codeId(CARRIER, carriers, false);
+    }
+
+    private int codeId(int field, CodeCache cache, boolean airport) {
+        int start = valueStarts[field];
+        if (start < 0) {
+            throw new IllegalArgumentException("Missing field " + fieldName(field));
+        }
+        int length = valueEnds[field] - start;
+        long key = valueEscaped[field] ? -1 : CodeCache.key(bytes, start, length);
+        int id = key >= 0 ? cache.get(key) : -1;
+        if (id >= 0) {
+            return id;
+        }
+
+        String code = stringValue(field);
+        id = airport ? builder.airportId(code, null) : builder.carrierId(code);
+        if (airport && id >= airportCodes.length) {
+            airportCodes = Arrays.copyOf(airportCodes, id * 2);
+            airportNamed = Arrays.copyOf(airportNamed, id * 2);
+        }
+        if (airport) {
+            airportCodes[id] = code;
+        }
+        if (key >= 0) {
+            cache.put(key, id);
+        }
+        return id;
+    }
+
+    private int epochMinutes(int dateField, int timeField) {
+        int dateStart = valueStarts[dateField];
+        int timeStart = valueStarts[timeField];
+        if (dateStart < 0 || timeStart < 0) {
+            throw new IllegalArgumentException("Missing field " + fieldName(dateStart < 0 ? dateField : timeField));
+        }
+        if (valueEscaped[dateField] || valueEscaped[timeField]) {
+            return TimeUtils.toEpochMinutes(stringValue(dateField), stringValue(timeField));
+        }
+        return (int) (epochDay(dateStart, valueEnds[dateField]) * TimeUtils.MINUTES_PER_DAY)
+                + minuteOfDay(timeStart, valueEnds[timeField]);
+    }
+
+    // "dd.MM.yy", see TimeUtils.toEpochDay
+    private long epochDay(int start, int end) {
+        if (end - start != 8 || bytes[start + 2] != '.' || bytes[start + 5] != '.') {
+            throw new IllegalArgumentException("Date must be in dd.MM.yy format: " + text(start, end));
+        }
+        int day = twoDigits(start);
+        int month = twoDigits(start + 3);
+        int year = 2000 + twoDigits(start + 6);
+        if (month < 1 || month > 12 || day < 1 || day > TimeUtils.daysInMonth(year, month)) {
+            throw new IllegalArgumentException("Date is out of range: " + text(start, end));
+        }
+        return TimeUtils.epochDay(year, month, day);
+    }
+
+    // "H:mm" or "HH:mm", see TimeUtils.toMinuteOfDay
+    private int minuteOfDay(int start, int end) {
+        int length = end - start;
+        if ((length != 4 && length != 5) || bytes[end - 3] != ':') {
+            throw new IllegalArgumentException("Time must be in H:mm format: " + text(start, end));
+        }
+        int hour = length == 4 ? digit(start) : twoDigits(start);
+        int minute = twoDigits(end - 2);
+        if (hour > 23 || minute > 59) {
+            throw new IllegalArgumentException("Time is out of range: " + text(start, end));
+        }
+        return hour * 60 + minute;
+    }
+
+    private int parseStops() {
+        int start = valueStarts[STOPS];
+        int end = valueEnds[STOPS];
+        if (valueEscaped[STOPS] || start == end) {
+            throw new IllegalArgumentException("Invalid stop count: " + stringValue(STOPS));
+        }
+        int stops = 0;
+        for (int i = start; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9 || stops > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid stop count: " + text(start, end));
+            }
+            stops = stops * 10 + digit;
+        }
+        return stops;
+    }
+
+    // Plain decimals are parsed from the bytes, anything else goes through PriceUtils
+    private long parsePrice() {
+        int start = valueStarts[PRICE];
+        if (start < 0) {
+            throw new IllegalArgumentException("Missing field price");
+        }
+        int end = valueEnds[PRICE];
+        if (valueEscaped[PRICE] || end - start > 16) {
+            return PriceUtils.toMinorUnits(stringValue(PRICE));
+        }
+        long units = 0;
+        int fractionDigits = -1;
+        for (int i = start; i < end; i++) {
+            byte c = bytes[i];
+            if (c >= '0' && c <= '9') {
+                units = units * 10 + (c - '0');
+                if (fractionDigits >= 0 && ++fractionDigits > PriceUtils.SCALE) {
+                    return PriceUtils.toMinorUnits(stringValue(PRICE));
+                }
+            } else if (c == '.' && fractionDigits < 0 && i > start) {
+                fractionDigits = 0;
+            } else {
+                return PriceUtils.toMinorUnits(stringValue(PRICE));
+            }
+        }
+        if (start == end) {
+            throw new NumberFormatException("Price is empty");
+        }
+        for (int i = Math.max(fractionDigits, 0); i < PriceUtils.SCALE; i++) {
+            units *= 10;
+        }
+        return units;
+    }
+
+    private int priceScale() {
+        int start = valueStarts[PRICE];
+        int end = valueEnds[PRICE];
+        int dot = -1;
+        for (int i = start; i < end; i++) {
+            byte c = bytes[i];
+            if (c == 'e' || c == 'E' || c == '\\') {
+                return PriceUtils.scaleOf(stringValue(PRICE));
+            }
+            if (c == '.') {
+                dot = i;
+            }
+        }
+        return dot < 0 ? 0 : end - dot - 1;
+    }
+
+    private String stringValue(int field) {
+        int start = valueStarts[field];
+        int end = valueEnds[field];
+        return valueEscaped[field] ? unescape(start, end) : text(start, end);
+    }
+
+    private String text(int start, int end) {
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private int twoDigits(int index) {
+        return digit(index) * 10 + digit(index + 1);
+    }
+
+    private int digit(int index) {
+        int digit = bytes[index] - '0';
+        if (digit < 0 || digit > 9) {
+            throw new IllegalArgumentException("Unexpected character at " + index);
+        }
+        return digit;
+    }
+
+    // --- JSON tokens ---
+
+    /**
+     * Reads a string token and returns the offset of its first content byte; the end and whether it contains
+     * escapes are left in {@link #stringEnd} and {@link #stringEscaped}.
+     */
+    private int readString() throws IOException {
+        if (peek() != '"') {
+            throw error("Expected a string");
+        }
+        stringStart = ++pos;
+        try {
+            skipStringContent();
+            return stringStart;
+        } finally {
+            stringStart = -1;
+        }
+    }
+
+    /**
+     * Same as {@link #readString()} for a string whose content is not needed, so a refill may drop it.
+     */
+    private void skipString() throws IOException {
+        if (peek() != '"') {
+            throw error("Expected a string");
+        }
+        pos++;
+        skipStringContent();
+    }
+
+    private void skipStringContent() throws IOException {
+        boolean escaped = false;
+        while (ensure(1)) {
+            byte c = bytes[pos];
+            if (c == '"') {
+                stringEnd = pos++;
+                stringEscaped = escaped;
+                return;
+            }
+            if (c == '\\') {
+                escaped = true;
+                pos++;
+                if (!ensure(1)) {
+                    break;
+                }
+            }
+            pos++;
+        }
+        throw error("Unterminated string");
+    }
+
+    private void skipValue() throws IOException {
+        int token = peek();
+        switch (token) {
+            case '"' -> skipString();
+            case '{', '[' -> skipContainer();
+            case 't' -> skipLiteral("true");
+            case 'f' -> skipLiteral("false");
+            case 'n' -> skipLiteral("null");
+            default -> skipNumber();
+        }
+    }
+
+    private void skipContainer() throws IOException {
+        int depth = 0;
+        while (ensure(1)) {
+            byte c = bytes[pos];
+            if (c == '"') {
+                skipString();
+                continue;
+            }
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (--depth == 0) {
+                    pos++;
+                    return;
+                }
+            }
+            pos++;
+        }
+        throw error("Unexpected end of document");
+    }
+
+    private void skipNumber() throws IOException {
+        long start = offset();
+        if (ensure(1) && bytes[pos] == '-') {
+            pos++;
+        }
+        long digitsStart = offset();
+        while (ensure(1)) {
+            byte c = bytes[pos];
+            if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                pos++;
+            } else {
+                break;
+            }
+        }
+        if (offset() == digitsStart) {
+            throw new TicketDecodingException("Unexpected character", start);
+        }
+    }
+
+    private void skipLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (!ensure(1) || bytes[pos] != literal.charAt(i)) {
+                throw error("Expected " + literal);
+            }
+            pos++;
+        }
+    }
+
+    /**
+     * Consumes a ',' and returns {@code true}, or returns {@code false} positioned at the closing character.
+     */
+    private boolean nextSeparator(char close) throws IOException {
+        int token = peek();
+        if (token == ',') {
+            pos++;
+            return true;
+        }
+        if (token == close) {
+            return false;
+        }
+        throw error("Expected ',' or '" + close + "'");
+    }
+
+    private void expect(char expected, String message) throws IOException {
+        if (peek() != expected) {
+            throw error(message);
+        }
+        pos++;
+    }
+
+    // Skips whitespace and returns the next byte without consuming it, or -1 at the end
+    private int peek() throws IOException {
+        while (ensure(1)) {
+            byte c = bytes[pos];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    private TicketDecodingException error(String message) {
+        return new TicketDecodingException(message, offset());
+    }
+
+    private long offset() {
+        return bufferOffset + pos;
+    }
+
+    /**
+     * Refills a stream buffer until it holds {@code count} bytes from the current position.
+     *
+     * @return {@code false} if the document ends first.
+     */
+    private boolean ensure(int count) throws IOException {
+        while (end - pos < count) {
+            if (inputStream == null || !fill()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean fill() throws IOException {
+        int keep = pos;
+        if (mark >= 0) {
+            keep = Math.min(keep, mark);
+        }
+        if (stringStart >= 0) {
+            keep = Math.min(keep, stringStart);
+        }
+        if (keep > 0) {
+            compact(keep);
+        }
+        if (end == bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        int read = inputStream.read(bytes, end, bytes.length - end);
+        if (read < 0) {
+            return false;
+        }
+        end += read;
+        return true;
+    }
+
+    // Drops the bytes before the position and moves every kept position with them
+    private void compact(int keep) {
+        System.arraycopy(bytes, keep, bytes, 0, end - keep);
+        end -= keep;
+        pos -= keep;
+        bufferOffset += keep;
+        if (stringStart >= 0) {
+            stringStart -= keep;
+        }
+        if (mark >= 0) {
+            mark -= keep;
+            for (int field = 0; field < FIELD_NAMES.length; field++) {
+                if (valueStarts[field] >= 0) {
+                    valueStarts[field] -= keep;
+                    valueEnds[field] -= keep;
+                }
+            }
+        }
+    }
+
+    private int field(int start, int end, boolean escaped) {
+        // Documents usually list the fields in the same order, so the successor of the last field is tried first
+        int expected = lastField + 1 < FIELD_NAMES.length ? lastField + 1 : 0;
+        if (nameEquals(start, end, escaped, FIELD_NAMES[expected])) {
+            lastField = expected;
+            return expected;
+        }
+        for (int field = 0; field < FIELD_NAMES.length; field++) {
+            if (nameEquals(start, end, escaped, FIELD_NAMES[field])) {
+                lastField = field;
+                return field;
+            }
+        }
+        return UNKNOWN_FIELD;
+    }
+
+    private boolean nameEquals(int start, int end, boolean escaped, byte[] name) {
+        if (escaped) {
+            return unescape(start, end).equals(new String(name, StandardCharsets.UTF_8));
+        }
+        return end - start == name.length && Arrays.equals(bytes, start, end, name, 0, name.length);
+    }
+
+    private static String fieldName(int field) {
+        return new String(FIELD_NAMES[field], StandardCharsets.UTF_8);
+    }
+
+    private String unescape(int start, int end) {
+        StringBuilder result = new StringBuilder(end - start);
+        int chunkStart = start;
+        int i = start;
+        while (i < end) {
+            if (bytes[i] != '\\') {
+                i++;
+                continue;
+            }
+            result.append(new String(bytes, chunkStart, i - chunkStart, StandardCharsets.UTF_8));
+            char escape = (char) bytes[i + 1];
+            switch (escape) {
+                case 'b' -> result.append('\b');
+                case 'f' -> result.append('\f');
+                case 'n' -> result.append('\n');
+                case 'r' -> result.append('\r');
+                case 't' -> result.append('\t');
+                case 'u' -> {
+                    if (i + 6 > end) {
+                        throw new IllegalArgumentException("Malformed unicode escape at " + i);
+                    }
+                    result.append((char) Integer.parseInt(new String(bytes, i + 2, 4, StandardCharsets.US_ASCII), 16));
+                    i += 4;
+                }
+                default -> result.append(escape);
+            }
+            i += 2;
+            chunkStart = i;
+        }
+        result.append(new String(bytes, chunkStart, end - chunkStart, StandardCharsets.UTF_8));
+        return result.toString();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Open-addressing map from codes of up to seven bytes, packed into a {@code long}, to dictionary ids.
+     */
+    private static class CodeCache {
+
+        private static final int MAX_LENGTH = 7;
+
+        private long[] keys = new long[64];
+        private int[] ids = new int[64];
+        private int size;
+
+        CodeCache() {
+            Arrays.fill(keys, -1);
+        }
+
+        /**
+         * @return The packed code, or {@code -1} if the code is too long to be cached.
+         */
+        static long key(byte[] bytes, int start, int length) {
+            if (length > MAX_LENGTH) {
+                return -1;
+            }
+            long key = length;
+            for (int i = 0; i < length; i++) {
+                key = key << 8 | (bytes[start + i] & 0xFF);
+            }
+            return key;
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return ids[slot];
+                }
+                if (keys[slot] == -1) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long key, int id) {
+            if (2 * (size + 1) > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != -1) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            ids[slot] = id;
+            size++;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldIds = ids;
+            keys = new long[oldKeys.length * 2];
+            ids = new int[oldIds.length * 2];
+            Arrays.fill(keys, -1);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != -1) {
+                    put(oldKeys[i], oldIds[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
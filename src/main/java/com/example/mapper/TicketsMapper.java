@@ -2,16 +2,31 @@ package com.example.mapper;
 
 import com.example.model.Ticket;
 import com.example.model.TicketsWrapper;
+import com.example.utils.TicketMetrics;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class TicketsMapper {
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String TICKETS_FIELD = "tickets";
 
     /**
      * Reads a JSON file from the resources folder, parses it, and returns a list of tickets.
@@ -21,12 +36,207 @@ public class TicketsMapper {
      * @throws IOException if the file cannot be read or parsed.
      */
     public static List<Ticket> readTickets(String resourcePath) throws IOException {
-        try (InputStream inputStream = TicketsMapper.class.getClassLoader().getResourceAsStream(resourcePath)) {
-            if (inputStream == null) {
-                throw new IOException("Cannot find resource file: " + resourcePath);
+        long start = TicketMetrics.startTimer();
+        try (InputStream inputStream = openResource(resourcePath);
+             JsonParser parser = objectMapper.createParser(inputStream)) {
+            TicketsWrapper wrapper = objectMapper.readValue(parser, TicketsWrapper.class);
+            List<Ticket> tickets = wrapper.tickets() != null ? wrapper.tickets() : Collections.emptyList();
+            TicketMetrics.recordIngest("readTickets", bytesRead(parser), tickets.size(), start);
+            return tickets;
+        } catch (JsonProcessingException e) {
+            // A missing or unreadable resource is not a parse error
+            TicketMetrics.recordParseError();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a JSON file from the resources folder ticket by ticket and hands each one to the consumer,
+     * so that the whole document is never held in memory.
+     *
+     * @param resourcePath The path to the JSON file within the resources directory (e.g., "ticket/tickets.json").
+     * @param consumer     The consumer receiving every parsed {@link Ticket} in document order.
+     * @throws IOException if the file cannot be read or parsed.
+     */
+    public static void readTickets(String resourcePath, Consumer<Ticket> consumer) throws IOException {
+        try (InputStream inputStream = openResource(resourcePath)) {
+            readTickets(inputStream, consumer);
+        }
+    }
+
+    /**
+     * Parses the "tickets" array of a JSON document token by token and hands each ticket to the consumer.
+     * The stream is not closed by this method.
+     *
+     * @param inputStream The JSON document.
+     * @param consumer    The consumer receiving every parsed {@link Ticket} in document order.
+     * @throws IOException if the document cannot be read or parsed.
+     */
+    public static void readTickets(InputStream inputStream, Consumer<Ticket> consumer) throws IOException {
+        long start = TicketMetrics.startTimer();
+        long count = 0;
+        try (JsonParser parser = objectMapper.createParser(inputStream)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (moveToTickets(parser)) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    consumer.accept(objectMapper.readValue(parser, Ticket.class));
+                    count++;
+                }
+                checkArrayEnd(parser);
+            }
+            TicketMetrics.recordIngest("readTickets", bytesRead(parser), count, start);
+        } catch (JsonProcessingException e) {
+            TicketMetrics.recordParseError();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a lazy stream over the tickets of a JSON document. Tickets are parsed one at a time while
+     * the stream is consumed; closing the stream closes the underlying input.
+     * Parsing failures surface as {@link UncheckedIOException}.
+     *
+     * @param inputStream The JSON document.
+     * @return A sequential stream of {@link Ticket} objects that must be closed after use.
+     * @throws IOException if the document header cannot be read or parsed.
+     */
+    public static Stream<Ticket> streamTickets(InputStream inputStream) throws IOException {
+        return streamTickets(objectMapper.createParser(inputStream));
+    }
+
+    /**
+     * Opens a lazy stream over the tickets of a JSON document read from a character source.
+     *
+     * @param reader The JSON document.
+     * @return A sequential stream of {@link Ticket} objects that must be closed after use.
+     * @throws IOException if the document header cannot be read or parsed.
+     */
+    public static Stream<Ticket> streamTickets(Reader reader) throws IOException {
+        return streamTickets(objectMapper.createParser(reader));
+    }
+
+    /**
+     * Opens a lazy stream over the tickets of a JSON file in the resources folder.
+     *
+     * @param resourcePath The path to the JSON file within the resources directory (e.g., "ticket/tickets.json").
+     * @return A sequential stream of {@link Ticket} objects that must be closed after use.
+     * @throws IOException if the file cannot be found or its header cannot be parsed.
+     */
+    public static Stream<Ticket> streamTickets(String resourcePath) throws IOException {
+        return streamTickets(openResource(resourcePath));
+    }
+
+    private static Stream<Ticket> streamTickets(JsonParser parser) throws IOException {
+        long start = TicketMetrics.startTimer();
+        try {
+            TicketIterator iterator = new TicketIterator(parser, !moveToTickets(parser));
+            Spliterator<Ticket> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+                    Spliterator.ORDERED | Spliterator.NONNULL);
+            return StreamSupport.stream(spliterator, false).onClose(() -> {
+                TicketMetrics.recordIngest("streamTickets", bytesRead(parser), iterator.count, start);
+                try {
+                    parser.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof JsonProcessingException) {
+                TicketMetrics.recordParseError();
             }
-            TicketsWrapper wrapper = objectMapper.readValue(inputStream, TicketsWrapper.class);
-            return wrapper.tickets() != null ? wrapper.tickets() : Collections.emptyList();
+            parser.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The bytes consumed by the parser, or -1 if it reads characters.
+     */
+    private static long bytesRead(JsonParser parser) {
+        return parser.currentLocation().getByteOffset();
+    }
+
+    static InputStream openResource(String resourcePath) throws IOException {
+        InputStream inputStream = TicketsMapper.class.getClassLoader().getResourceAsStream(resourcePath);
+        if (inputStream == null) {
+            throw new IOException("Cannot find resource file: " + resourcePath);
+        }
+        return inputStream;
+    }
+
+    /**
+     * Advances the parser to the first element of the root "tickets" array, skipping any other root fields.
+     *
+     * @return {@code true} if the parser is positioned at the start of the array, {@code false} if the
+     * document has no tickets (missing or {@code null} field).
+     */
+    private static boolean moveToTickets(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a JSON object at the document root");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (TICKETS_FIELD.equals(field)) {
+                if (value == JsonToken.VALUE_NULL) {
+                    return false;
+                }
+                if (value != JsonToken.START_ARRAY) {
+                    throw new JsonParseException(parser, "Field \"" + TICKETS_FIELD + "\" must be an array");
+                }
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private static void checkArrayEnd(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.END_ARRAY) {
+            throw new JsonParseException(parser,
+                    "Unexpected token in \"" + TICKETS_FIELD + "\" array: " + parser.currentToken());
+        }
+    }
+
+    private static class TicketIterator implements Iterator<Ticket> {
+
+        private final JsonParser parser;
+        private Ticket next;
+        private boolean finished;
+        private long count;
+
+        TicketIterator(JsonParser parser, boolean finished) {
+            this.parser = parser;
+            this.finished = finished;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) return true;
+            if (finished) return false;
+            try {
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    next = objectMapper.readValue(parser, Ticket.class);
+                    count++;
+                    return true;
+                }
+                checkArrayEnd(parser);
+                finished = true;
+                return false;
+            } catch (JsonProcessingException e) {
+                TicketMetrics.recordParseError();
+                throw new UncheckedIOException(e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Ticket next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Ticket ticket = next;
+            next = null;
+            return ticket;
         }
     }
 }
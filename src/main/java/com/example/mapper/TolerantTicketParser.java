@@ -0,0 +1,497 @@
+package com.example.mapper;
+
+import com.example.model.Ticket;
+import com.example.model.TicketParseError;
+import com.example.model.TicketParseResult;
+import com.example.utils.IntList;
+import com.example.utils.PriceUtils;
+import com.example.utils.TicketMetrics;
+import com.example.utils.TimeUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reads tickets documents that may contain invalid tickets, keeping the valid ones.
+ * <p>
+ * A structural scan that only tracks strings and nesting finds where each element of the "tickets" array starts
+ * and ends. The elements are then split into chunks that are parsed and validated on several threads, each
+ * element on its own, so a bad ticket is reported as a {@link TicketParseError} with its byte offset and the
+ * others are kept. A ticket is invalid if it is malformed or if its codes, dates, times, price or stop count
+ * would be rejected by {@link com.example.model.TicketTable.Builder#add(Ticket)}.
+ * <p>
+ * Streams are read in windows of {@link #WINDOW_SIZE} bytes: the elements complete in a window are parsed,
+ * then the partial element at its end is carried into the next one. A window only grows for a single element
+ * or a document header that does not fit it, so documents of any size are read in bounded memory.
+ * <p>
+ * After a broken separator the scan resumes at the next opening brace. Only a document whose root or
+ * "tickets" field cannot be found fails as a whole.
+ */
+public class TolerantTicketParser {
+
+    public static final int CHUNK_SIZE = 1024;
+    public static final int WINDOW_SIZE = 16 * 1024 * 1024;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final byte[] TICKETS_FIELD = "tickets".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private final InputStream input;
+    private final String source;
+    private byte[] json;
+    private int end;
+    // The offset of json[0] in the document
+    private long base;
+    private boolean eof;
+    private boolean resync;
+
+    private TolerantTicketParser(byte[] json, String source) {
+        this.input = null;
+        this.source = source;
+        this.json = json;
+        this.end = json.length;
+        this.eof = true;
+    }
+
+    private TolerantTicketParser(InputStream input, String source, int windowSize) {
+        this.input = input;
+        this.source = source;
+        this.json = new byte[windowSize];
+    }
+
+    /**
+     * @param json        The UTF-8 encoded document.
+     * @param source      The name of the document in error reports.
+     * @param parallelism The maximum number of threads parsing chunks.
+     * @throws TicketDecodingException if the document has no object root or its "tickets" field is not an array.
+     */
+    public static TicketParseResult parse(byte[] json, String source, int parallelism) throws TicketDecodingException {
+        try {
+            return parse(new TolerantTicketParser(json, source), parallelism);
+        } catch (TicketDecodingException e) {
+            throw e;
+        } catch (IOException e) {
+            // A document in memory is never read
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses a UTF-8 encoded document read from the stream in windows, see the class description.
+     * The stream is not closed.
+     *
+     * @param windowSize The initial window size in bytes.
+     * @throws TicketDecodingException if the document has no object root or its "tickets" field is not an array.
+     */
+    public static TicketParseResult parse(InputStream input, String source, int parallelism, int windowSize)
+            throws IOException {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        return parse(new TolerantTicketParser(input, source, windowSize), parallelism);
+    }
+
+    /**
+     * Reads and parses a classpath resource.
+     */
+    public static TicketParseResult parseResource(String resourcePath, int parallelism) throws IOException {
+        try (InputStream inputStream = TicketsMapper.openResource(resourcePath)) {
+            return parse(inputStream, resourcePath, parallelism, WINDOW_SIZE);
+        }
+    }
+
+    /**
+     * Reads and parses a file, decompressing it if needed, see {@link TicketFiles#open(Path)}.
+     */
+    public static TicketParseResult parse(Path path, int parallelism) throws IOException {
+        try (InputStream inputStream = TicketFiles.open(path)) {
+            return parse(inputStream, path.toString(), parallelism, WINDOW_SIZE);
+        }
+    }
+
+    /**
+     * Parses the shards one after the other and concatenates their results in shard order.
+     */
+    public static TicketParseResult parse(List<Path> shards, int parallelism) throws IOException {
+        List<Ticket> tickets = new ArrayList<>();
+        List<TicketParseError> errors = new ArrayList<>();
+        for (Path shard : shards) {
+            TicketParseResult result = parse(shard, parallelism);
+            tickets.addAll(result.tickets());
+            errors.addAll(result.errors());
+        }
+        return new TicketParseResult(tickets, errors);
+    }
+
+    private static TicketParseResult parse(TolerantTicketParser parser, int parallelism) throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        long start = TicketMetrics.startTimer();
+        TicketParseResult result = parser.parseDocument(parallelism);
+        for (int i = 0; i < result.errors().size(); i++) {
+            TicketMetrics.recordParseError();
+        }
+        TicketMetrics.recordIngest("parseTolerant", parser.base + parser.end, result.tickets().size(), start);
+        return result;
+    }
+
+    private TicketParseResult parseDocument(int parallelism) throws IOException {
+        if (input != null) {
+            fill(0);
+        }
+        List<Ticket> tickets = new ArrayList<>();
+        List<TicketParseError> errors = new ArrayList<>();
+        ExecutorService executor = null;
+        try {
+            int pos = findTicketsInWindows();
+            while (pos >= 0) {
+                IntList starts = new IntList();
+                IntList ends = new IntList();
+                int resume = scanElements(pos, starts, ends, errors);
+
+                int chunks = (starts.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+                if (chunks > 1 && parallelism > 1 && executor == null) {
+                    executor = TicketFiles.newExecutor(parallelism, "ticket-chunk-parser-");
+                }
+                for (ChunkResult result : parseChunks(starts, ends, chunks, executor)) {
+                    tickets.addAll(result.tickets());
+                    errors.addAll(result.errors());
+                }
+                if (resume < 0) {
+                    break;
+                }
+                // The chunks are parsed, the window can be overwritten
+                fill(resume);
+                pos = 0;
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        errors.sort(Comparator.comparingLong(TicketParseError::offset));
+        return new TicketParseResult(tickets, errors);
+    }
+
+    private List<ChunkResult> parseChunks(IntList starts, IntList ends, int chunks, ExecutorService executor) {
+        List<ChunkResult> results = new ArrayList<>(chunks);
+        if (chunks <= 1 || executor == null) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                results.add(parseChunk(starts, ends, chunk));
+            }
+            return results;
+        }
+        try {
+            List<Future<ChunkResult>> futures = new ArrayList<>(chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int index = chunk;
+                futures.add(executor.submit(() -> parseChunk(starts, ends, index)));
+            }
+            for (Future<ChunkResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            // Chunk parsing catches every record failure, so only errors such as OutOfMemoryError end up here
+            throw new IllegalStateException("Cannot parse chunk of " + source, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing " + source, e);
+        }
+        return results;
+    }
+
+    private ChunkResult parseChunk(IntList starts, IntList ends, int chunk) {
+        int from = chunk * CHUNK_SIZE;
+        int to = Math.min(from + CHUNK_SIZE, starts.size());
+        List<Ticket> tickets = new ArrayList<>(to - from);
+        List<TicketParseError> errors = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            int start = starts.get(i);
+            try {
+                Ticket ticket = objectMapper.readValue(json, start, ends.get(i) - start, Ticket.class);
+                validate(ticket);
+                tickets.add(ticket);
+            } catch (JsonProcessingException e) {
+                errors.add(error(start, e.getOriginalMessage()));
+            } catch (IOException | RuntimeException e) {
+                errors.add(error(start, String.valueOf(e.getMessage())));
+            }
+        }
+        return new ChunkResult(tickets, errors);
+    }
+
+    private static void validate(Ticket ticket) {
+        if (ticket == null) {
+            throw new IllegalArgumentException("Ticket is null");
+        }
+        checkCode("origin", ticket.origin());
+        checkCode("destination", ticket.destination());
+        checkCode("carrier", ticket.carrier());
+        TimeUtils.toEpochMinutes(ticket.departureDate(), ticket.departureTime());
+        TimeUtils.toEpochMinutes(ticket.arrivalDate(), ticket.arrivalTime());
+        PriceUtils.toMinorUnits(ticket.price());
+        if (ticket.stops() < 0 || ticket.stops() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Stop count is out of range: " + ticket.stops());
+        }
+    }
+
+    private static void checkCode(String field, String code) {
+        if (code == null || code.isEmpty()) {
+            throw new IllegalArgumentException("Field \"" + field + "\" is missing");
+        }
+    }
+
+    /**
+     * @return The position right after the opening bracket of the "tickets" array, or -1 if the document
+     * has no tickets (missing or {@code null} field).
+     */
+    private int findTickets() throws TicketDecodingException {
+        int pos = 0;
+        if (end >= 3 && json[0] == (byte) 0xEF && json[1] == (byte) 0xBB && json[2] == (byte) 0xBF) {
+            pos = 3;
+        }
+        pos = skipWhitespace(pos);
+        if (pos >= end || json[pos] != '{') {
+            throw new TicketDecodingException("Expected a JSON object at the document root", pos);
+        }
+        pos = skipWhitespace(pos + 1);
+        while (pos < end && json[pos] != '}') {
+            if (json[pos] != '"') {
+                throw new TicketDecodingException("Expected a field name", pos);
+            }
+            int keyEnd = skipString(pos);
+            if (keyEnd < 0) {
+                throw new TicketDecodingException("Unterminated field name", pos);
+            }
+            boolean tickets = regionEquals(pos + 1, keyEnd - 1, TICKETS_FIELD);
+            pos = skipWhitespace(keyEnd);
+            if (pos >= end || json[pos] != ':') {
+                throw new TicketDecodingException("Expected ':'", pos);
+            }
+            pos = skipWhitespace(pos + 1);
+            if (tickets) {
+                if (pos < end && json[pos] == '[') {
+                    return pos + 1;
+                }
+                if (regionEquals(pos, Math.min(pos + NULL.length, end), NULL)) {
+                    return -1;
+                }
+                throw new TicketDecodingException("Field \"tickets\" must be an array", pos);
+            }
+            int valueEnd = skipValue(pos);
+            if (valueEnd < 0) {
+                throw new TicketDecodingException("Unterminated value", pos);
+            }
+            pos = skipWhitespace(valueEnd);
+            if (pos < end && json[pos] == ',') {
+                pos = skipWhitespace(pos + 1);
+            } else if (pos >= end || json[pos] != '}') {
+                throw new TicketDecodingException("Expected ',' or '}'", pos);
+            }
+        }
+        if (pos >= end) {
+            throw new TicketDecodingException("Unterminated document root", pos);
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the "tickets" array, reading more of the stream while the header does not fit the window.
+     */
+    private int findTicketsInWindows() throws IOException {
+        while (true) {
+            try {
+                return findTickets();
+            } catch (TicketDecodingException e) {
+                if (eof) {
+                    throw e;
+                }
+                fill(0);
+            }
+        }
+    }
+
+    /**
+     * Records the elements of the window that are complete up to their separator.
+     *
+     * @return The position to resume the scan at in the next window, or -1 if the array is done.
+     */
+    private int scanElements(int pos, IntList starts, IntList ends, List<TicketParseError> errors) {
+        while (true) {
+            if (resync) {
+                // Resume at the next ticket, whatever lies in between
+                pos = indexOf('{', pos);
+                if (pos < 0) {
+                    return eof ? -1 : end;
+                }
+                resync = false;
+            }
+            pos = skipWhitespace(pos);
+            if (pos >= end) {
+                if (!eof) {
+                    return pos;
+                }
+                errors.add(error(pos, "Unterminated tickets array"));
+                return -1;
+            }
+            if (json[pos] == ']') {
+                return -1;
+            }
+            int valueEnd = skipValue(pos);
+            if (valueEnd < 0) {
+                if (!eof) {
+                    return pos;
+                }
+                errors.add(error(pos, "Unterminated ticket"));
+                return -1;
+            }
+            int next = skipWhitespace(valueEnd);
+            if (next >= end && !eof) {
+                // The separator is in the next window, the element is scanned again there
+                return pos;
+            }
+            starts.add(pos);
+            ends.add(valueEnd);
+            pos = next;
+            if (pos < end && json[pos] == ',') {
+                pos++;
+            } else if (pos < end && json[pos] == ']') {
+                return -1;
+            } else if (pos < end) {
+                errors.add(error(pos, "Expected ',' or ']'"));
+                resync = true;
+            }
+        }
+    }
+
+    /**
+     * Drops the window up to {@code keepFrom} and reads the stream until the window is full or the stream ends.
+     * The window doubles if everything it holds has to be kept.
+     */
+    private void fill(int keepFrom) throws IOException {
+        int kept = end - keepFrom;
+        if (kept == json.length) {
+            json = Arrays.copyOf(json, json.length * 2);
+        } else {
+            System.arraycopy(json, keepFrom, json, 0, kept);
+        }
+        base += keepFrom;
+        end = kept;
+        while (end < json.length) {
+            int read = input.read(json, end, json.length - end);
+            if (read < 0) {
+                eof = true;
+                return;
+            }
+            end += read;
+        }
+    }
+
+    private TicketParseError error(int pos, String message) {
+        return new TicketParseError(source, base + pos, message);
+    }
+
+    /**
+     * @return The position right after the value starting at {@code pos}, or -1 if it is not terminated.
+     * Scalars end at the next delimiter, so malformed scalars are returned whole; a scalar reaching the end of
+     * the window is not terminated unless the stream has ended.
+     */
+    private int skipValue(int pos) {
+        if (pos >= end) {
+            return -1;
+        }
+        byte b = json[pos];
+        if (b == '"') {
+            return skipString(pos);
+        }
+        if (b != '{' && b != '[') {
+            int scalarEnd = pos + 1;
+            while (scalarEnd < end && !isDelimiter(json[scalarEnd])) {
+                scalarEnd++;
+            }
+            return scalarEnd < end || eof ? scalarEnd : -1;
+        }
+        int depth = 0;
+        while (pos < end) {
+            b = json[pos];
+            if (b == '"') {
+                pos = skipString(pos);
+                if (pos < 0) {
+                    return -1;
+                }
+                continue;
+            }
+            if (b == '{' || b == '[') {
+                depth++;
+            } else if ((b == '}' || b == ']') && --depth == 0) {
+                return pos + 1;
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    /**
+     * @return The position right after the closing quote of the string starting at {@code pos}, or -1.
+     */
+    private int skipString(int pos) {
+        for (pos++; pos < end; pos++) {
+            byte b = json[pos];
+            if (b == '"') {
+                return pos + 1;
+            }
+            if (b == '\\') {
+                pos++;
+            }
+        }
+        return -1;
+    }
+
+    private int skipWhitespace(int pos) {
+        while (pos < end && (json[pos] == ' ' || json[pos] == '\n' || json[pos] == '\r' || json[pos] == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private int indexOf(char c, int pos) {
+        for (; pos < end; pos++) {
+            if (json[pos] == c) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    private boolean regionEquals(int from, int to, byte[] expected) {
+        if (to - from != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (json[from + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDelimiter(byte b) {
+        return b == ',' || b == ']' || b == '}' || b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private record ChunkResult(List<Ticket> tickets, List<TicketParseError> errors) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary encoding of short codes (IATA airport or carrier codes) to dense {@code short} ids.
+ * Ids are assigned in order of first appearance, starting from zero.
+ */
+public class CodeDictionary {
+
+    public static final int MAX_SIZE = Short.MAX_VALUE + 1;
+
+    private final Map<String, Short> ids = new HashMap<>();
+    private String[] codes = new String[16];
+    private int size;
+
+    CodeDictionary() {
+    }
+
+    /**
+     * Returns the id of the code, registering it if it has not been seen before.
+     *
+     * @throws IllegalStateException if the dictionary is full.
+     */
+    short encode(String code) {
+        Short id = ids.get(code);
+        if (id != null) {
+            return id;
+        }
+        if (size == MAX_SIZE) {
+            throw new IllegalStateException("Too many distinct codes, limit is " + MAX_SIZE);
+        }
+        if (size == codes.length) {
+            codes = Arrays.copyOf(codes, size * 2);
+        }
+        short newId = (short) size;
+        codes[size++] = code;
+        ids.put(code, newId);
+        return newId;
+    }
+
+    /**
+     * @return The id of the code, or {@code -1} if the code is unknown.
+     */
+    public int find(String code) {
+        Short id = ids.get(code);
+        return id != null ? id : -1;
+    }
+
+    public String decode(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Unknown code id: " + id);
+        }
+        return codes[id];
+    }
+
+    public int size() {
+        return size;
+    }
+}
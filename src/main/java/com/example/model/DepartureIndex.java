@@ -0,0 +1,142 @@
+package com.example.model;
+
+import com.example.utils.IntList;
+import com.example.utils.TimeUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of ticket positions by route, ordered by departure time within each route.
+ * It is built once from a ticket list or {@link TicketTable} and is only valid for that source.
+ * <p>
+ * Departures are local epoch minutes at the origin, see {@link TimeUtils#toEpochMinutes(String, String)}.
+ * A departure window of a route is found by binary search, so a query over a week of a year of fares only
+ * visits the tickets of that week. Tickets departing at the same minute keep their source order.
+ */
+public class DepartureIndex {
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final Map<Route, RouteDepartures> routes;
+    private final int size;
+
+    private DepartureIndex(Map<Route, RouteDepartures> routes, int size) {
+        this.routes = routes;
+        this.size = size;
+    }
+
+    public static DepartureIndex of(List<Ticket> tickets) {
+        Map<Route, IntList> groups = new HashMap<>();
+        int[] departures = new int[tickets.size()];
+        for (int i = 0; i < tickets.size(); i++) {
+            Ticket ticket = tickets.get(i);
+            departures[i] = TimeUtils.toEpochMinutes(ticket.departureDate(), ticket.departureTime());
+            groups.computeIfAbsent(new Route(ticket.origin(), ticket.destination()), k -> new IntList()).add(i);
+        }
+
+        Map<Route, RouteDepartures> routes = new HashMap<>();
+        for (Map.Entry<Route, IntList> entry : groups.entrySet()) {
+            routes.put(entry.getKey(), RouteDepartures.of(entry.getValue(), departures));
+        }
+        return new DepartureIndex(routes, tickets.size());
+    }
+
+    public static DepartureIndex of(TicketTable tickets) {
+        // Group by the packed airport ids first so that no Route is created per row
+        Map<Integer, IntList> groups = new HashMap<>();
+        int[] departures = new int[tickets.size()];
+        for (int row = 0; row < tickets.size(); row++) {
+            departures[row] = tickets.departure(row);
+            groups.computeIfAbsent(tickets.originId(row) << 16 | tickets.destinationId(row), k -> new IntList())
+                    .add(row);
+        }
+
+        Map<Route, RouteDepartures> routes = new HashMap<>();
+        for (Map.Entry<Integer, IntList> entry : groups.entrySet()) {
+            int key = entry.getKey();
+            Route route = new Route(tickets.airportCode(key >>> 16), tickets.airportCode(key & 0xFFFF));
+            routes.put(route, RouteDepartures.of(entry.getValue(), departures));
+        }
+        return new DepartureIndex(routes, tickets.size());
+    }
+
+    /**
+     * @return The number of tickets in the indexed source.
+     */
+    public int size() {
+        return size;
+    }
+
+    public Set<Route> routes() {
+        return Collections.unmodifiableSet(routes.keySet());
+    }
+
+    /**
+     * @param from The first departure minute of the window, inclusive.
+     * @param to   The end of the window, exclusive.
+     * @return The positions of the route's tickets departing in the window, in departure order.
+     */
+    public int[] rows(String origin, String destination, int from, int to) {
+        RouteDepartures routeDepartures = routes.get(new Route(origin, destination));
+        if (routeDepartures == null || from >= to) {
+            return NO_ROWS;
+        }
+        int first = routeDepartures.lowerBound(from);
+        int end = routeDepartures.lowerBound(to);
+        return Arrays.copyOfRange(routeDepartures.rows(), first, end);
+    }
+
+    /**
+     * @return The number of the route's tickets departing in the window {@code [from, to)}.
+     */
+    public int count(String origin, String destination, int from, int to) {
+        RouteDepartures routeDepartures = routes.get(new Route(origin, destination));
+        if (routeDepartures == null || from >= to) {
+            return 0;
+        }
+        return routeDepartures.lowerBound(to) - routeDepartures.lowerBound(from);
+    }
+
+    private record RouteDepartures(int[] departures, int[] rows) {
+
+        static RouteDepartures of(IntList group, int[] allDepartures) {
+            // Sort (departure, position) pairs packed into longs, so that no boxed comparator is needed
+            long[] keys = new long[group.size()];
+            for (int i = 0; i < keys.length; i++) {
+                int row = group.get(i);
+                keys[i] = (long) allDepartures[row] << 32 | row;
+            }
+            Arrays.sort(keys);
+
+            int[] departures = new int[keys.length];
+            int[] rows = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                departures[i] = (int) (keys[i] >> 32);
+                rows[i] = (int) keys[i];
+            }
+            return new RouteDepartures(departures, rows);
+        }
+
+        /**
+         * @return The first index departing at or after the minute.
+         */
+        int lowerBound(int minute) {
+            int low = 0;
+            int high = departures.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (departures[middle] < minute) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
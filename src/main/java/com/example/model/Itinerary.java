@@ -0,0 +1,23 @@
+package com.example.model;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A journey of one or more connecting tickets.
+ *
+ * @param legs     The tickets in travel order.
+ * @param duration The time from the first departure to the last arrival, corrected for time zones.
+ * @param price    The total price of the tickets.
+ */
+public record Itinerary(
+        List<Ticket> legs,
+        Duration duration,
+        BigDecimal price
+) {
+
+    public int transfers() {
+        return legs.size() - 1;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.model;
+
+import com.example.utils.LongMultiset;
+import com.example.utils.PriceUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statistics of one route that are kept up to date as tickets are added and removed, unlike the append-only
+ * {@link RouteStats}: ticket count, price sum, exact median, minimum and maximum, and per-carrier minimal
+ * flight time.
+ * <p>
+ * Prices are split into a lower and an upper sorted half whose sizes differ by at most one, so the median is
+ * read from the ends of the halves. Updates take logarithmic time and every query constant or logarithmic time.
+ * The halves keep the scale of every price next to it, so the median has the scale of the middle prices like the
+ * list-based median; equal prices written with different scales are ordered by scale.
+ * Instances are not thread-safe.
+ */
+public class LiveRouteStats {
+
+    private final Route route;
+    // Every price of the lower half is not greater than any price of the upper half,
+    // and the lower half holds as many prices as the upper half or one more; see PriceUtils.toPriceKey
+    private final LongMultiset lowerPrices = new LongMultiset();
+    private final LongMultiset upperPrices = new LongMultiset();
+    private final LongMultiset priceScales = new LongMultiset();
+    private final Map<String, LongMultiset> flightMinutes = new HashMap<>();
+    private long sum;
+
+    public LiveRouteStats(Route route) {
+        this.route = route;
+    }
+
+    /**
+     * Records one ticket.
+     *
+     * @param carrier       The carrier code.
+     * @param flightMinutes The flight time in minutes, already corrected for time zones.
+     * @param price         The price in minor units.
+     * @param scale         The number of fractional digits of the source price.
+     */
+    public void add(String carrier, long flightMinutes, long price, int scale) {
+        long key = PriceUtils.toPriceKey(price, scale);
+        sum = Math.addExact(sum, price);
+        addPrice(key);
+        priceScales.add(scale);
+        this.flightMinutes.computeIfAbsent(carrier, k -> new LongMultiset()).add(flightMinutes);
+    }
+
+    /**
+     * Forgets one ticket recorded earlier with the same values.
+     *
+     * @return {@code false} if no such ticket was recorded; the statistics are then unchanged.
+     */
+    public boolean remove(String carrier, long flightMinutes, long price, int scale) {
+        LongMultiset carrierMinutes = this.flightMinutes.get(carrier);
+        if (carrierMinutes == null || !carrierMinutes.remove(flightMinutes)) {
+            return false;
+        }
+        long key = PriceUtils.toPriceKey(price, scale);
+        boolean removed = !lowerPrices.isEmpty() && key <= lowerPrices.last()
+                ? lowerPrices.remove(key)
+                : upperPrices.remove(key);
+        if (!removed || !priceScales.remove(scale)) {
+            // Put back what was already taken out
+            carrierMinutes.add(flightMinutes);
+            if (removed) {
+                addPrice(key);
+            }
+            return false;
+        }
+        if (carrierMinutes.isEmpty()) {
+            this.flightMinutes.remove(carrier);
+        }
+        rebalance();
+        sum -= price;
+        return true;
+    }
+
+    private void addPrice(long key) {
+        if (lowerPrices.isEmpty() || key <= lowerPrices.last()) {
+            lowerPrices.add(key);
+        } else {
+            upperPrices.add(key);
+        }
+        rebalance();
+    }
+
+    private void rebalance() {
+        if (lowerPrices.size() > upperPrices.size() + 1) {
+            upperPrices.add(lowerPrices.removeLast());
+        } else if (upperPrices.size() > lowerPrices.size()) {
+            lowerPrices.add(upperPrices.removeFirst());
+        }
+    }
+
+    public Route getRoute() {
+        return route;
+    }
+
+    public long getCount() {
+        return lowerPrices.size() + upperPrices.size();
+    }
+
+    public boolean isEmpty() {
+        return lowerPrices.isEmpty();
+    }
+
+    public Map<String, Duration> getMinimalTimeForEachCarrier() {
+        Map<String, Duration> minFlightTimes = new HashMap<>();
+        for (Map.Entry<String, LongMultiset> entry : flightMinutes.entrySet()) {
+            minFlightTimes.put(entry.getKey(), Duration.ofMinutes(entry.getValue().first()));
+        }
+        return minFlightTimes;
+    }
+
+    public BigDecimal getMinPrice() {
+        checkNotEmpty();
+        return PriceUtils.toBigDecimal(PriceUtils.keyMinorUnits(lowerPrices.first()), priceScale());
+    }
+
+    public BigDecimal getMaxPrice() {
+        checkNotEmpty();
+        long maxKey = upperPrices.isEmpty() ? lowerPrices.last() : upperPrices.last();
+        return PriceUtils.toBigDecimal(PriceUtils.keyMinorUnits(maxKey), priceScale());
+    }
+
+    /**
+     * @return The mean price, rounded {@link RoundingMode#HALF_UP} like the list-based average.
+     */
+    public BigDecimal getAveragePrice() {
+        checkNotEmpty();
+        return PriceUtils.divide(sum, getCount(), priceScale(), RoundingMode.HALF_UP);
+    }
+
+    /**
+     * @return The exact median price; for an even count the mean of the two middle prices rounded
+     * {@link RoundingMode#CEILING} at the larger of their scales.
+     */
+    public BigDecimal getMedianaPrice() {
+        checkNotEmpty();
+        long lower = lowerPrices.last();
+        if (lowerPrices.size() > upperPrices.size()) {
+            return PriceUtils.keyToBigDecimal(lower);
+        }
+        return PriceUtils.keyMidpoint(lower, upperPrices.first());
+    }
+
+    private int priceScale() {
+        return (int) priceScales.last();
+    }
+
+    private void checkNotEmpty() {
+        if (isEmpty()) {
+            throw new IllegalArgumentException("Tickets list is empty");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.model;
+
+/**
+ * A directed pair of airports.
+ *
+ * @param origin      The IATA code for the origin airport.
+ * @param destination The IATA code for the destination airport.
+ */
+public record Route(
+        String origin,
+        String destination
+) {
+
+    @Override
+    public String toString() {
+        return origin + "-" + destination;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.model;
+
+import com.example.utils.IntList;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of ticket positions by route, with a secondary grouping by carrier.
+ * It is built once from a ticket list or {@link TicketTable} and is only valid for that source.
+ * Positions are kept in ascending order. Arrays returned by this class are shared and must not be modified.
+ */
+public class RouteIndex {
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final Map<Route, RouteRows> routes;
+    private final int size;
+
+    private RouteIndex(Map<Route, RouteRows> routes, int size) {
+        this.routes = routes;
+        this.size = size;
+    }
+
+    public static RouteIndex of(List<Ticket> tickets) {
+        Map<Route, Map<String, IntList>> groups = new HashMap<>();
+        for (int i = 0; i < tickets.size(); i++) {
+            Ticket ticket = tickets.get(i);
+            groups.computeIfAbsent(new Route(ticket.origin(), ticket.destination()), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(ticket.carrier(), k -> new IntList())
+                    .add(i);
+        }
+
+        Map<Route, RouteRows> routes = new HashMap<>();
+        for (Map.Entry<Route, Map<String, IntList>> entry : groups.entrySet()) {
+            routes.put(entry.getKey(), RouteRows.of(entry.getValue()));
+        }
+        return new RouteIndex(routes, tickets.size());
+    }
+
+    public static RouteIndex of(TicketTable tickets) {
+        // Group by the packed airport ids first so that no Route is created per row
+        Map<Integer, Map<String, IntList>> groups = new HashMap<>();
+        for (int row = 0; row < tickets.size(); row++) {
+            int key = tickets.originId(row) << 16 | tickets.destinationId(row);
+            int carrierId = tickets.carrierId(row);
+            groups.computeIfAbsent(key, k -> new LinkedHashMap<>())
+                    .computeIfAbsent(tickets.carrierCode(carrierId), k -> new IntList())
+                    .add(row);
+        }
+
+        Map<Route, RouteRows> routes = new HashMap<>();
+        for (Map.Entry<Integer, Map<String, IntList>> entry : groups.entrySet()) {
+            int key = entry.getKey();
+            Route route = new Route(tickets.airportCode(key >>> 16), tickets.airportCode(key & 0xFFFF));
+            routes.put(route, RouteRows.of(entry.getValue()));
+        }
+        return new RouteIndex(routes, tickets.size());
+    }
+
+    /**
+     * @return The number of tickets in the indexed source.
+     */
+    public int size() {
+        return size;
+    }
+
+    public Set<Route> routes() {
+        return Collections.unmodifiableSet(routes.keySet());
+    }
+
+    /**
+     * @return The ascending positions of all tickets on the route, or an empty array for an unknown route.
+     */
+    public int[] rows(String origin, String destination) {
+        RouteRows routeRows = routes.get(new Route(origin, destination));
+        return routeRows != null ? routeRows.rows() : NO_ROWS;
+    }
+
+    /**
+     * @return The ascending positions of the route's tickets grouped by carrier code, or an empty map for an
+     * unknown route.
+     */
+    public Map<String, int[]> carrierRows(String origin, String destination) {
+        RouteRows routeRows = routes.get(new Route(origin, destination));
+        return routeRows != null ? routeRows.carrierRows() : Collections.emptyMap();
+    }
+
+    private record RouteRows(int[] rows, Map<String, int[]> carrierRows) {
+
+        static RouteRows of(Map<String, IntList> carrierGroups) {
+            int count = 0;
+            for (IntList group : carrierGroups.values()) {
+                count += group.size();
+            }
+
+            int[] rows = new int[count];
+            Map<String, int[]> carrierRows = new LinkedHashMap<>();
+            int offset = 0;
+            for (Map.Entry<String, IntList> entry : carrierGroups.entrySet()) {
+                int[] group = entry.getValue().toArray();
+                System.arraycopy(group, 0, rows, offset, group.length);
+                offset += group.length;
+                carrierRows.put(entry.getKey(), group);
+            }
+            // Sorting restores the source order across the carrier groups
+            Arrays.sort(rows);
+            return new RouteRows(rows, Collections.unmodifiableMap(carrierRows));
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.model;
+
+import com.example.utils.PriceUtils;
+import com.example.utils.QuantileSketch;
+import com.example.utils.SelectionUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Single-pass accumulator of the statistics of one route: ticket count, price sum, minimum and maximum,
+ * per-carrier minimal flight time and the prices for quantiles.
+ * <p>
+ * Accumulators are mergeable, so partial results computed over chunks or threads can be combined.
+ * By default every price is kept with its scale, and the median and percentiles are selected exactly, with the
+ * values of the list-based methods. Equal prices written with different scales, such as 100 and 100.0, are
+ * ordered by scale rather than by ticket order, so the selected price may then differ from the list-based one in
+ * its trailing zeros. Prices must fit {@link PriceUtils} minor units. Accumulators created with a sketch size keep a {@link QuantileSketch}
+ * instead, whose memory is bounded whatever the route size: its quantiles are exact while the route holds no
+ * more prices than the sketch capacity and approximate beyond that.
+ * Instances are not thread-safe.
+ */
+public class RouteStats {
+
+    private final Route route;
+    // Exactly one of them is used: the prices as PriceUtils price keys, or the opt-in sketch
+    private long[] priceKeys;
+    private final QuantileSketch sketch;
+    // Boxed minutes would be re-allocated on every improvement, a one-element array is updated in place
+    private final Map<String, long[]> minFlightMinutes = new HashMap<>();
+    private long count;
+    private long sum;
+    private long minPrice = Long.MAX_VALUE;
+    private long maxPrice = Long.MIN_VALUE;
+    private int priceScale;
+
+    /**
+     * Creates an accumulator with exact price quantiles.
+     */
+    public RouteStats(Route route) {
+        this.route = route;
+        this.priceKeys = new long[8];
+        this.sketch = null;
+    }
+
+    /**
+     * Creates an accumulator with approximate price quantiles in bounded memory.
+     *
+     * @param sketchSize The accuracy parameter of the price sketch, e.g. {@link QuantileSketch#DEFAULT_K}.
+     */
+    public RouteStats(Route route, int sketchSize) {
+        this.route = route;
+        this.priceKeys = null;
+        this.sketch = new QuantileSketch(sketchSize);
+    }
+
+    /**
+     * Records one ticket.
+     *
+     * @param carrier       The carrier code.
+     * @param flightMinutes The flight time in minutes, already corrected for time zones.
+     * @param price         The price in minor units.
+     * @param scale         The number of fractional digits of the source price.
+     */
+    public void add(String carrier, long flightMinutes, long price, int scale) {
+        count++;
+        sum = Math.addExact(sum, price);
+        minPrice = Math.min(minPrice, price);
+        maxPrice = Math.max(maxPrice, price);
+        priceScale = Math.max(priceScale, scale);
+        if (sketch != null) {
+            sketch.add(price);
+        } else {
+            if (count > priceKeys.length) {
+                priceKeys = Arrays.copyOf(priceKeys, Math.toIntExact(Math.max(count, priceKeys.length * 2L)));
+            }
+            priceKeys[(int) count - 1] = PriceUtils.toPriceKey(price, scale);
+        }
+
+        long[] minMinutes = minFlightMinutes.get(carrier);
+        if (minMinutes == null) {
+            minFlightMinutes.put(carrier, new long[]{flightMinutes});
+        } else if (flightMinutes < minMinutes[0]) {
+            minMinutes[0] = flightMinutes;
+        }
+    }
+
+    /**
+     * Folds the statistics of another accumulator of the same route into this one.
+     * The other accumulator is left unchanged.
+     *
+     * @throws IllegalArgumentException if the accumulators belong to different routes, or only one of them
+     *                                  keeps a sketch.
+     */
+    public RouteStats merge(RouteStats other) {
+        if (!route.equals(other.route)) {
+            throw new IllegalArgumentException("Cannot merge stats of " + other.route + " into " + route);
+        }
+        if ((sketch == null) != (other.sketch == null)) {
+            throw new IllegalArgumentException("Cannot merge exact and sketched stats of " + route);
+        }
+        if (sketch != null) {
+            sketch.merge(other.sketch);
+        } else {
+            int size = Math.toIntExact(count + other.count);
+            if (size > priceKeys.length) {
+                priceKeys = Arrays.copyOf(priceKeys, Math.max(size, priceKeys.length * 2));
+            }
+            System.arraycopy(other.priceKeys, 0, priceKeys, (int) count, (int) other.count);
+        }
+        count += other.count;
+        sum = Math.addExact(sum, other.sum);
+        minPrice = Math.min(minPrice, other.minPrice);
+        maxPrice = Math.max(maxPrice, other.maxPrice);
+        priceScale = Math.max(priceScale, other.priceScale);
+        for (Map.Entry<String, long[]> entry : other.minFlightMinutes.entrySet()) {
+            long[] minMinutes = minFlightMinutes.get(entry.getKey());
+            if (minMinutes == null) {
+                minFlightMinutes.put(entry.getKey(), new long[]{entry.getValue()[0]});
+            } else if (entry.getValue()[0] < minMinutes[0]) {
+                minMinutes[0] = entry.getValue()[0];
+            }
+        }
+        return this;
+    }
+
+    public Route getRoute() {
+        return route;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public Map<String, Duration> getMinimalTimeForEachCarrier() {
+        Map<String, Duration> minFlightTimes = new HashMap<>();
+        for (Map.Entry<String, long[]> entry : minFlightMinutes.entrySet()) {
+            minFlightTimes.put(entry.getKey(), Duration.ofMinutes(entry.getValue()[0]));
+        }
+        return minFlightTimes;
+    }
+
+    public BigDecimal getMinPrice() {
+        checkNotEmpty();
+        return PriceUtils.toBigDecimal(minPrice, priceScale);
+    }
+
+    public BigDecimal getMaxPrice() {
+        checkNotEmpty();
+        return PriceUtils.toBigDecimal(maxPrice, priceScale);
+    }
+
+    /**
+     * @return The mean price, rounded {@link RoundingMode#HALF_UP} like the list-based average.
+     */
+    public BigDecimal getAveragePrice() {
+        checkNotEmpty();
+        return PriceUtils.divide(sum, count, priceScale, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * @return The median price; for an even count the mean of the two middle prices rounded
+     * {@link RoundingMode#CEILING}. Exact prices keep the scale of the middle prices like the list-based median,
+     * equal prices written with different scales being ordered by scale. Sketched prices are given at the route's
+     * largest scale and estimated unless {@link #isExact()}.
+     */
+    public BigDecimal getMedianaPrice() {
+        checkNotEmpty();
+        if (sketch == null) {
+            int size = (int) count;
+            // Selection reorders the keys, which are a multiset
+            long upper = SelectionUtils.select(priceKeys, 0, size, size / 2);
+            if (size % 2 == 1) {
+                return PriceUtils.keyToBigDecimal(upper);
+            }
+            return PriceUtils.keyMidpoint(SelectionUtils.max(priceKeys, 0, size / 2), upper);
+        }
+        long upper = sketch.valueAtRank(count / 2 + 1);
+        if (count % 2 == 1) {
+            return PriceUtils.toBigDecimal(upper, priceScale);
+        }
+        long lower = sketch.valueAtRank(count / 2);
+        return PriceUtils.divide(Math.addExact(lower, upper), 2, priceScale, RoundingMode.CEILING);
+    }
+
+    /**
+     * @param percentile The nearest-rank percentile in {@code (0, 100]}.
+     */
+    public BigDecimal getPercentilePrice(double percentile) {
+        if (!(percentile > 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be within (0, 100]: " + percentile);
+        }
+        checkNotEmpty();
+        if (sketch == null) {
+            int rank = (int) Math.max(Math.ceil(percentile / 100 * count) - 1, 0);
+            return PriceUtils.keyToBigDecimal(SelectionUtils.select(priceKeys, 0, (int) count, rank));
+        }
+        return PriceUtils.toBigDecimal(sketch.quantile(percentile / 100), priceScale);
+    }
+
+    /**
+     * @return {@code true} if price quantiles are exact.
+     */
+    public boolean isExact() {
+        return sketch == null || sketch.isExact();
+    }
+
+    private void checkNotEmpty() {
+        if (count == 0) {
+            throw new IllegalArgumentException("Tickets list is empty");
+        }
+    }
+}
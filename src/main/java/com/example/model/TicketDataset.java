@@ -0,0 +1,33 @@
+package com.example.model;
+
+/**
+ * An immutable, indexed generation of the loaded tickets.
+ *
+ * @param tickets        The tickets.
+ * @param routeIndex     The route index of {@code tickets}.
+ * @param departureIndex The departure index of {@code tickets}.
+ * @param version        The generation number, increasing with every reload.
+ */
+public record TicketDataset(
+        TicketTable tickets,
+        RouteIndex routeIndex,
+        DepartureIndex departureIndex,
+        long version
+) {
+
+    public TicketDataset {
+        if (routeIndex.size() != tickets.size()) {
+            throw new IllegalArgumentException("Route index was built for a different ticket set");
+        }
+        if (departureIndex.size() != tickets.size()) {
+            throw new IllegalArgumentException("Departure index was built for a different ticket set");
+        }
+    }
+
+    /**
+     * Indexes the tickets.
+     */
+    public static TicketDataset of(TicketTable tickets, long version) {
+        return new TicketDataset(tickets, RouteIndex.of(tickets), DepartureIndex.of(tickets), version);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.model;
+
+/**
+ * A ticket that was skipped by a tolerant read.
+ *
+ * @param source  The file, resource or other input the ticket was read from.
+ * @param offset  The byte offset of the ticket in the source.
+ * @param message The reason the ticket was rejected.
+ */
+public record TicketParseError(
+        String source,
+        long offset,
+        String message
+) {
+
+    @Override
+    public String toString() {
+        return source + " at byte offset " + offset + ": " + message;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a tolerant read: the valid tickets in document order and the rejected ones in offset order.
+ */
+public record TicketParseResult(
+        List<Ticket> tickets,
+        List<TicketParseError> errors
+) {
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Binary snapshot of a {@link TicketTable}, written once and opened by memory-mapping the file.
+ * <p>
+ * The file holds a fixed header, the airport and carrier dictionaries, and then every column as a contiguous
+ * little-endian array of fixed-width values, each starting at an 8-byte boundary:
+ * <pre>
+ * header       magic "TKTSNAP1", version, row count, price scale, airport count, carrier count,
+ *              dictionary offset and length, offsets of the 7 columns
+ * dictionaries per airport: code and name (name length -1 for none); per carrier: code
+ * columns      origins, destinations, carriers (int16), departures, arrivals (int32), stops (int8), prices (int64)
+ * </pre>
+ * Opening a snapshot reads the header, the dictionaries and the three id columns, whose ids are checked against
+ * the dictionaries; the other columns are read in place from the page cache, so a table is ready after one
+ * sequential pass over 6 bytes per row and does not occupy the heap.
+ * Every column is mapped as a single buffer, which holds at most 2 GB, so a snapshot holds at most
+ * {@link #MAX_ROWS} rows.
+ * Tables opened from a snapshot are read-only views of the file, which must not be modified while they are in use.
+ */
+public class TicketSnapshot {
+
+    /**
+     * The largest table a snapshot holds, limited by the 8-byte price column.
+     */
+    public static final int MAX_ROWS = Integer.MAX_VALUE / Long.BYTES;
+
+    private static final byte[] MAGIC = "TKTSNAP1".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 128;
+    private static final int COLUMN_COUNT = 7;
+    private static final int[] COLUMN_WIDTHS = {Short.BYTES, Short.BYTES, Short.BYTES, Integer.BYTES, Integer.BYTES,
+            Byte.BYTES, Long.BYTES};
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Writes the table to a file, replacing it. The snapshot is written to a temporary file next to the target
+     * and moved into place, so readers never see a partial file.
+     *
+     * @throws IllegalArgumentException if the table has more than {@link #MAX_ROWS} rows.
+     */
+    public static void write(TicketTable table, Path path) throws IOException {
+        if (table.size() > MAX_ROWS) {
+            throw new IllegalArgumentException("Snapshots hold at most " + MAX_ROWS + " rows: " + table.size());
+        }
+        Path directory = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                writeTo(table, channel);
+                channel.force(false);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Maps a snapshot file into a read-only table.
+     *
+     * @throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    public static TicketTable open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException("Not a ticket snapshot: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a ticket snapshot: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + path);
+            }
+            int size = header.getInt();
+            if (size > MAX_ROWS) {
+                throw new IOException("Snapshots hold at most " + MAX_ROWS + " rows, found " + size + ": " + path);
+            }
+            int priceScale = header.getInt();
+            int airportCount = header.getInt();
+            int carrierCount = header.getInt();
+            long dictionaryOffset = header.getLong();
+            long dictionaryLength = header.getLong();
+            long[] columnOffsets = new long[COLUMN_COUNT];
+            for (int column = 0; column < COLUMN_COUNT; column++) {
+                columnOffsets[column] = header.getLong();
+                long end = columnOffsets[column] + (long) size * COLUMN_WIDTHS[column];
+                if (size < 0 || columnOffsets[column] < HEADER_SIZE || end > fileSize) {
+                    throw new IOException("Corrupted snapshot, column " + column + " is out of bounds: " + path);
+                }
+            }
+            if (dictionaryOffset < HEADER_SIZE || dictionaryLength < 0 || dictionaryOffset + dictionaryLength > fileSize
+                    || airportCount < 0 || carrierCount < 0) {
+                throw new IOException("Corrupted snapshot header: " + path);
+            }
+
+            CodeDictionary airports = new CodeDictionary();
+            String[] airportNames = new String[airportCount];
+            CodeDictionary carriers = new CodeDictionary();
+            ByteBuffer dictionaries = channel.map(FileChannel.MapMode.READ_ONLY, dictionaryOffset, dictionaryLength)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            try {
+                for (int id = 0; id < airportCount; id++) {
+                    airports.encode(readString(dictionaries));
+                    airportNames[id] = readString(dictionaries);
+                }
+                for (int id = 0; id < carrierCount; id++) {
+                    carriers.encode(readString(dictionaries));
+                }
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IOException("Corrupted snapshot dictionaries: " + path, e);
+            }
+            if (airports.size() != airportCount || carriers.size() != carrierCount) {
+                throw new IOException("Corrupted snapshot, duplicate dictionary codes: " + path);
+            }
+
+            // Mappings stay valid after the channel is closed
+            ShortBuffer origins = map(channel, columnOffsets[0], size, 0).asShortBuffer();
+            ShortBuffer destinations = map(channel, columnOffsets[1], size, 1).asShortBuffer();
+            ShortBuffer carrierIds = map(channel, columnOffsets[2], size, 2).asShortBuffer();
+            checkIds(origins, airportCount, 0, path);
+            checkIds(destinations, airportCount, 1, path);
+            checkIds(carrierIds, carrierCount, 2, path);
+            return new TicketTable(airports, airportNames, carriers, origins, destinations, carrierIds,
+                    map(channel, columnOffsets[3], size, 3).asIntBuffer(),
+                    map(channel, columnOffsets[4], size, 4).asIntBuffer(),
+                    map(channel, columnOffsets[5], size, 5),
+                    map(channel, columnOffsets[6], size, 6).asLongBuffer(),
+                    priceScale, size);
+        }
+    }
+
+    private static void checkIds(ShortBuffer ids, int count, int column, Path path) throws IOException {
+        int min = 0;
+        int max = -1;
+        for (int row = 0; row < ids.limit(); row++) {
+            int id = ids.get(row);
+            min = Math.min(min, id);
+            max = Math.max(max, id);
+        }
+        if (min < 0 || max >= count) {
+            throw new IOException("Corrupted snapshot, column " + column + " holds ids outside the dictionary: "
+                    + path);
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long offset, int size, int column) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) size * COLUMN_WIDTHS[column]);
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeTo(TicketTable table, FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        int size = table.size();
+
+        // Dictionaries go right after the header, then the header is written last with the final offsets
+        channel.position(HEADER_SIZE);
+        for (int id = 0; id < table.airportCount(); id++) {
+            buffer = writeString(channel, buffer, table.airportCode(id));
+            buffer = writeString(channel, buffer, table.airportName(id));
+        }
+        for (int id = 0; id < table.carrierCount(); id++) {
+            buffer = writeString(channel, buffer, table.carrierCode(id));
+        }
+        flush(channel, buffer);
+        long dictionaryLength = channel.position() - HEADER_SIZE;
+
+        long[] columnOffsets = new long[COLUMN_COUNT];
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            long offset = align(channel.position());
+            columnOffsets[column] = offset;
+            channel.position(offset);
+            for (int row = 0; row < size; row++) {
+                if (buffer.remaining() < Long.BYTES) {
+                    flush(channel, buffer);
+                }
+                switch (column) {
+                    case 0 -> buffer.putShort((short) table.originId(row));
+                    case 1 -> buffer.putShort((short) table.destinationId(row));
+                    case 2 -> buffer.putShort((short) table.carrierId(row));
+                    case 3 -> buffer.putInt(table.departure(row));
+                    case 4 -> buffer.putInt(table.arrival(row));
+                    case 5 -> buffer.put((byte) table.stops(row));
+                    default -> buffer.putLong(table.price(row));
+                }
+            }
+            flush(channel, buffer);
+        }
+
+        buffer.clear();
+        buffer.put(MAGIC)
+                .putInt(VERSION)
+                .putInt(size)
+                .putInt(table.priceScale())
+                .putInt(table.airportCount())
+                .putInt(table.carrierCount())
+                .putLong(HEADER_SIZE)
+                .putLong(dictionaryLength);
+        for (long offset : columnOffsets) {
+            buffer.putLong(offset);
+        }
+        while (buffer.position() < HEADER_SIZE) {
+            buffer.put((byte) 0);
+        }
+        buffer.flip();
+        channel.write(buffer, 0);
+    }
+
+    private static ByteBuffer writeString(FileChannel channel, ByteBuffer buffer, String value) throws IOException {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+        int length = bytes != null ? bytes.length : 0;
+        if (buffer.remaining() < Integer.BYTES + length) {
+            flush(channel, buffer);
+            if (buffer.capacity() < Integer.BYTES + length) {
+                buffer = ByteBuffer.allocate(Integer.BYTES + length).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        buffer.putInt(bytes != null ? length : -1);
+        if (bytes != null) {
+            buffer.put(bytes);
+        }
+        return buffer;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+}
@@ -0,0 +1,394 @@
+package com.example.model;
+
+import com.example.utils.PriceUtils;
+import com.example.utils.TimeUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Columnar, read-only store of tickets. Every ticket attribute is kept in its own primitive array:
+ * <ul>
+ *     <li>origin and destination airports, and carriers, as dictionary-encoded {@code short} ids;</li>
+ *     <li>departure and arrival as local wall-clock epoch minutes (see {@link TimeUtils#toEpochMinutes});</li>
+ *     <li>stops as {@code byte};</li>
+ *     <li>prices as {@code long} minor units (see {@link PriceUtils}).</li>
+ * </ul>
+ * Rows are addressed by their position, in the order tickets were added.
+ * <p>
+ * Columns are held in NIO buffers: tables built on the heap wrap arrays, while tables opened from a
+ * {@link TicketSnapshot} read straight from memory-mapped files.
+ */
+public class TicketTable {
+
+    private final CodeDictionary airports;
+    private final String[] airportNames;
+    private final CodeDictionary carriers;
+    private final ShortBuffer origins;
+    private final ShortBuffer destinations;
+    private final ShortBuffer carrierIds;
+    private final IntBuffer departures;
+    private final IntBuffer arrivals;
+    private final ByteBuffer stops;
+    private final LongBuffer prices;
+    private final int priceScale;
+    private final int size;
+
+    private TicketTable(CodeDictionary airports, String[] airportNames, CodeDictionary carriers,
+                        short[] origins, short[] destinations, short[] carrierIds,
+                        int[] departures, int[] arrivals, byte[] stops, long[] prices,
+                        int priceScale, int size) {
+        this(airports, airportNames, carriers, ShortBuffer.wrap(origins, 0, size),
+                ShortBuffer.wrap(destinations, 0, size), ShortBuffer.wrap(carrierIds, 0, size),
+                IntBuffer.wrap(departures, 0, size), IntBuffer.wrap(arrivals, 0, size),
+                ByteBuffer.wrap(stops, 0, size), LongBuffer.wrap(prices, 0, size), priceScale, size);
+    }
+
+    TicketTable(CodeDictionary airports, String[] airportNames, CodeDictionary carriers,
+                ShortBuffer origins, ShortBuffer destinations, ShortBuffer carrierIds,
+                IntBuffer departures, IntBuffer arrivals, ByteBuffer stops, LongBuffer prices,
+                int priceScale, int size) {
+        this.airports = airports;
+        this.airportNames = airportNames;
+        this.carriers = carriers;
+        this.origins = origins;
+        this.destinations = destinations;
+        this.carrierIds = carrierIds;
+        this.departures = departures;
+        this.arrivals = arrivals;
+        this.stops = stops;
+        this.prices = prices;
+        this.priceScale = priceScale;
+        this.size = size;
+    }
+
+    public static TicketTable of(Iterable<Ticket> tickets) {
+        Builder builder = new Builder();
+        for (Ticket ticket : tickets) {
+            builder.add(ticket);
+        }
+        return builder.build();
+    }
+
+    public static TicketTable of(Stream<Ticket> tickets) {
+        Builder builder = new Builder();
+        tickets.forEachOrdered(builder::add);
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int originId(int row) {
+        return origins.get(row);
+    }
+
+    public int destinationId(int row) {
+        return destinations.get(row);
+    }
+
+    public int carrierId(int row) {
+        return carrierIds.get(row);
+    }
+
+    /**
+     * @return The local departure date-time of the row as epoch minutes.
+     */
+    public int departure(int row) {
+        return departures.get(row);
+    }
+
+    /**
+     * @return The local arrival date-time of the row as epoch minutes.
+     */
+    public int arrival(int row) {
+        return arrivals.get(row);
+    }
+
+    public int stops(int row) {
+        return stops.get(row);
+    }
+
+    /**
+     * @return The price of the row in minor units.
+     */
+    public long price(int row) {
+        return prices.get(row);
+    }
+
+    /**
+     * @return The largest number of fractional digits among the source prices, used as the scale of
+     * price aggregates so that they match the {@link java.math.BigDecimal} arithmetic on the source strings.
+     */
+    public int priceScale() {
+        return priceScale;
+    }
+
+    /**
+     * @return The id of the airport code, or {@code -1} if no ticket references it.
+     */
+    public int airportId(String code) {
+        return airports.find(code);
+    }
+
+    public String airportCode(int id) {
+        return airports.decode(id);
+    }
+
+    public String airportName(int id) {
+        return airportNames[id];
+    }
+
+    public int airportCount() {
+        return airports.size();
+    }
+
+    /**
+     * @return The id of the carrier code, or {@code -1} if no ticket references it.
+     */
+    public int carrierId(String code) {
+        return carriers.find(code);
+    }
+
+    public String carrierCode(int id) {
+        return carriers.decode(id);
+    }
+
+    public int carrierCount() {
+        return carriers.size();
+    }
+
+    /**
+     * Copies the price column into a new array.
+     */
+    public long[] prices() {
+        long[] copy = new long[size];
+        prices.get(0, copy);
+        return copy;
+    }
+
+    /**
+     * Materializes a row back into a {@link Ticket}.
+     */
+    public Ticket ticket(int row) {
+        int origin = originId(row);
+        int destination = destinationId(row);
+        return new Ticket(
+                airports.decode(origin),
+                airportNames[origin],
+                airports.decode(destination),
+                airportNames[destination],
+                formatDate(departure(row)),
+                formatTime(departure(row)),
+                formatDate(arrival(row)),
+                formatTime(arrival(row)),
+                carriers.decode(carrierId(row)),
+                stops(row),
+                PriceUtils.toBigDecimal(price(row), priceScale).toPlainString());
+    }
+
+    /**
+     * Creates a table holding the given rows, in the given order. Dictionaries are shared with this table,
+     * so ids stay comparable between the two.
+     */
+    public TicketTable select(int[] rows) {
+        return select(rows, 0, rows.length);
+    }
+
+    /**
+     * Creates a table holding {@code rows[from, to)}, in that order.
+     */
+    public TicketTable select(int[] rows, int from, int to) {
+        int count = to - from;
+        short[] newOrigins = new short[count];
+        short[] newDestinations = new short[count];
+        short[] newCarriers = new short[count];
+        int[] newDepartures = new int[count];
+        int[] newArrivals = new int[count];
+        byte[] newStops = new byte[count];
+        long[] newPrices = new long[count];
+        for (int i = 0; i < count; i++) {
+            int row = rows[from + i];
+            newOrigins[i] = origins.get(row);
+            newDestinations[i] = destinations.get(row);
+            newCarriers[i] = carrierIds.get(row);
+            newDepartures[i] = departures.get(row);
+            newArrivals[i] = arrivals.get(row);
+            newStops[i] = stops.get(row);
+            newPrices[i] = prices.get(row);
+        }
+        return new TicketTable(airports, airportNames, carriers, newOrigins, newDestinations, newCarriers,
+                newDepartures, newArrivals, newStops, newPrices, priceScale, count);
+    }
+
+    private static String formatDate(int epochMinutes) {
+        int[] date = TimeUtils.toDate(Math.floorDiv(epochMinutes, TimeUtils.MINUTES_PER_DAY));
+        return String.format("%02d.%02d.%02d", date[2], date[1], date[0] % 100);
+    }
+
+    private static String formatTime(int epochMinutes) {
+        int minuteOfDay = Math.floorMod(epochMinutes, TimeUtils.MINUTES_PER_DAY);
+        return String.format("%d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    /**
+     * Accumulates tickets into growable columns. A builder is not thread-safe and must not be used
+     * after {@link #build()}.
+     */
+    public static class Builder {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final CodeDictionary airports = new CodeDictionary();
+        private String[] airportNames = new String[16];
+        private final CodeDictionary carriers = new CodeDictionary();
+        private short[] origins = new short[INITIAL_CAPACITY];
+        private short[] destinations = new short[INITIAL_CAPACITY];
+        private short[] carrierIds = new short[INITIAL_CAPACITY];
+        private int[] departures = new int[INITIAL_CAPACITY];
+        private int[] arrivals = new int[INITIAL_CAPACITY];
+        private byte[] stops = new byte[INITIAL_CAPACITY];
+        private long[] prices = new long[INITIAL_CAPACITY];
+        private int priceScale;
+        private int size;
+
+        /**
+         * Parses and appends a ticket.
+         *
+         * @throws IllegalArgumentException if a date, time, price or stop count cannot be represented.
+         */
+        public Builder add(Ticket ticket) {
+            int departure;
+            int arrival;
+            long price;
+            try {
+                departure = TimeUtils.toEpochMinutes(ticket.departureDate(), ticket.departureTime());
+                arrival = TimeUtils.toEpochMinutes(ticket.arrivalDate(), ticket.arrivalTime());
+                price = PriceUtils.toMinorUnits(ticket.price());
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid ticket: " + ticket, e);
+            }
+            return add(airportId(ticket.origin(), ticket.originName()),
+                    airportId(ticket.destination(), ticket.destinationName()),
+                    carrierId(ticket.carrier()),
+                    departure, arrival, ticket.stops(), price, PriceUtils.scaleOf(ticket.price()));
+        }
+
+        /**
+         * Appends an already parsed ticket. This is the entry point for decoders that read the source
+         * format directly into primitives.
+         *
+         * @param origin      The origin id from {@link #airportId(String, String)}.
+         * @param destination The destination id from {@link #airportId(String, String)}.
+         * @param carrier     The carrier id from {@link #carrierId(String)}.
+         * @param departure   The local departure time, see {@link TimeUtils#toEpochMinutes(String, String)}.
+         * @param arrival     The local arrival time.
+         * @param stopCount   The number of stops.
+         * @param price       The price in minor units, see {@link PriceUtils#toMinorUnits(String)}.
+         * @param scale       The number of fractional digits of the source price.
+         * @throws IllegalArgumentException if an id is unknown or the stop count cannot be represented.
+         */
+        public Builder add(int origin, int destination, int carrier, int departure, int arrival, int stopCount,
+                           long price, int scale) {
+            if (origin < 0 || origin >= airports.size() || destination < 0 || destination >= airports.size()) {
+                throw new IllegalArgumentException("Unknown airport id");
+            }
+            if (carrier < 0 || carrier >= carriers.size()) {
+                throw new IllegalArgumentException("Unknown carrier id: " + carrier);
+            }
+            if (stopCount < 0 || stopCount > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid stop count: " + stopCount);
+            }
+            priceScale = Math.max(priceScale, scale);
+            if (size == origins.length) {
+                grow();
+            }
+            origins[size] = (short) origin;
+            destinations[size] = (short) destination;
+            carrierIds[size] = (short) carrier;
+            departures[size] = departure;
+            arrivals[size] = arrival;
+            stops[size] = (byte) stopCount;
+            prices[size] = price;
+            size++;
+            return this;
+        }
+
+        /**
+         * Appends every row of a table, translating its dictionary ids to the ones of this builder.
+         */
+        public Builder addAll(TicketTable table) {
+            int[] airportIds = new int[table.airportCount()];
+            for (int id = 0; id < airportIds.length; id++) {
+                airportIds[id] = airportId(table.airportCode(id), table.airportName(id));
+            }
+            int[] carrierIds = new int[table.carrierCount()];
+            for (int id = 0; id < carrierIds.length; id++) {
+                carrierIds[id] = carrierId(table.carrierCode(id));
+            }
+            for (int row = 0; row < table.size(); row++) {
+                add(airportIds[table.originId(row)], airportIds[table.destinationId(row)],
+                        carrierIds[table.carrierId(row)], table.departure(row), table.arrival(row), table.stops(row),
+                        table.price(row), table.priceScale());
+            }
+            return this;
+        }
+
+        /**
+         * Returns the id of an airport, registering it if it has not been seen before. The first non-null
+         * name given for an airport is kept.
+         *
+         * @throws IllegalStateException if there are too many distinct airports.
+         */
+        public int airportId(String code, String name) {
+            short id = airports.encode(code);
+            if (id == airportNames.length) {
+                airportNames = Arrays.copyOf(airportNames, id * 2);
+            }
+            if (airportNames[id] == null) {
+                airportNames[id] = name;
+            }
+            return id;
+        }
+
+        /**
+         * Returns the id of a carrier, registering it if it has not been seen before.
+         *
+         * @throws IllegalStateException if there are too many distinct carriers.
+         */
+        public int carrierId(String code) {
+            return carriers.encode(code);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public TicketTable build() {
+            return new TicketTable(airports, Arrays.copyOf(airportNames, airports.size()), carriers,
+                    Arrays.copyOf(origins, size), Arrays.copyOf(destinations, size), Arrays.copyOf(carrierIds, size),
+                    Arrays.copyOf(departures, size), Arrays.copyOf(arrivals, size), Arrays.copyOf(stops, size),
+                    Arrays.copyOf(prices, size), priceScale, size);
+        }
+
+        private void grow() {
+            int capacity = size + (size >> 1);
+            origins = Arrays.copyOf(origins, capacity);
+            destinations = Arrays.copyOf(destinations, capacity);
+            carrierIds = Arrays.copyOf(carrierIds, capacity);
+            departures = Arrays.copyOf(departures, capacity);
+            arrivals = Arrays.copyOf(arrivals, capacity);
+            stops = Arrays.copyOf(stops, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+        }
+    }
+}
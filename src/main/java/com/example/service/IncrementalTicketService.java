@@ -0,0 +1,152 @@
+package com.example.service;
+
+import com.example.model.LiveRouteStats;
+import com.example.model.Route;
+import com.example.model.Ticket;
+import com.example.utils.PriceUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Incremental counterpart of {@link TicketService} for ticket sets that change over time. Tickets are added,
+ * removed or repriced one at a time, and the statistics of every route are updated in place as a
+ * {@link LiveRouteStats}, so queries never rescan the tickets.
+ * <p>
+ * Updates take logarithmic time in the number of distinct prices and flight times of the ticket's route.
+ * Queries return the same values as the list-based {@link TicketService} methods over the current tickets
+ * of the route. Instances are not thread-safe.
+ */
+public class IncrementalTicketService {
+
+    // Equal tickets may be added more than once, each copy is counted
+    private final Map<Ticket, int[]> tickets = new HashMap<>();
+    private final Map<Route, LiveRouteStats> routeStats = new HashMap<>();
+    private long size;
+
+    /**
+     * Adds a ticket.
+     *
+     * @throws NumberFormatException if the price is not a number.
+     * @throws ArithmeticException   if the price has more than {@link PriceUtils#SCALE} fractional digits, or the
+     *                               route's price sum overflows.
+     */
+    public void add(Ticket ticket) {
+        // Everything that can fail is computed before the state is touched
+        long flightMinutes = TicketService.getFlightDuration(ticket).toMinutes();
+        long price = PriceUtils.toMinorUnits(ticket.price());
+        int scale = PriceUtils.scaleOf(ticket.price());
+
+        Route route = new Route(ticket.origin(), ticket.destination());
+        LiveRouteStats stats = routeStats.get(route);
+        if (stats == null) {
+            // A new route is published only once it holds the ticket, the price sum may still overflow
+            stats = new LiveRouteStats(route);
+            stats.add(ticket.carrier(), flightMinutes, price, scale);
+            routeStats.put(route, stats);
+        } else {
+            stats.add(ticket.carrier(), flightMinutes, price, scale);
+        }
+        int[] count = tickets.get(ticket);
+        if (count == null) {
+            tickets.put(ticket, new int[]{1});
+        } else {
+            count[0]++;
+        }
+        size++;
+    }
+
+    public void addAll(Stream<Ticket> tickets) {
+        tickets.forEach(this::add);
+    }
+
+    /**
+     * Removes one copy of a ticket.
+     *
+     * @return {@code false} if the ticket is not present.
+     */
+    public boolean remove(Ticket ticket) {
+        int[] count = tickets.get(ticket);
+        if (count == null) {
+            return false;
+        }
+        Route route = new Route(ticket.origin(), ticket.destination());
+        LiveRouteStats stats = routeStats.get(route);
+        long flightMinutes = TicketService.getFlightDuration(ticket).toMinutes();
+        if (!stats.remove(ticket.carrier(), flightMinutes, PriceUtils.toMinorUnits(ticket.price()),
+                PriceUtils.scaleOf(ticket.price()))) {
+            throw new IllegalStateException("Route statistics of " + route + " do not contain " + ticket);
+        }
+        if (stats.isEmpty()) {
+            routeStats.remove(route);
+        }
+        if (--count[0] == 0) {
+            tickets.remove(ticket);
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Replaces one copy of a ticket with an equal ticket at another price.
+     *
+     * @return The repriced ticket.
+     * @throws IllegalArgumentException if the ticket is not present.
+     */
+    public Ticket updatePrice(Ticket ticket, String price) {
+        Ticket repriced = new Ticket(ticket.origin(), ticket.originName(), ticket.destination(),
+                ticket.destinationName(), ticket.departureDate(), ticket.departureTime(), ticket.arrivalDate(),
+                ticket.arrivalTime(), ticket.carrier(), ticket.stops(), price);
+        // Validate the new price before the old ticket is removed
+        PriceUtils.toMinorUnits(price);
+        if (!remove(ticket)) {
+            throw new IllegalArgumentException("Ticket is not present: " + ticket);
+        }
+        add(repriced);
+        return repriced;
+    }
+
+    public boolean contains(Ticket ticket) {
+        return tickets.containsKey(ticket);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The live statistics of the route, updated by later changes, or {@code null} if the route
+     * has no tickets.
+     */
+    public LiveRouteStats getRouteStats(String origin, String destination) {
+        return routeStats.get(new Route(origin, destination));
+    }
+
+    public Map<String, Duration> getMinimalTimeForEachCarrier(String origin, String destination) {
+        LiveRouteStats stats = getRouteStats(origin, destination);
+        return stats == null ? new HashMap<>() : stats.getMinimalTimeForEachCarrier();
+    }
+
+    public BigDecimal getAveragePrice(String origin, String destination) {
+        return getNonEmptyRouteStats(origin, destination).getAveragePrice();
+    }
+
+    public BigDecimal getMedianaPrice(String origin, String destination) {
+        return getNonEmptyRouteStats(origin, destination).getMedianaPrice();
+    }
+
+    private LiveRouteStats getNonEmptyRouteStats(String origin, String destination) {
+        LiveRouteStats stats = getRouteStats(origin, destination);
+        if (stats == null) {
+            throw new IllegalArgumentException("Tickets list is empty");
+        }
+        return stats;
+    }
+}
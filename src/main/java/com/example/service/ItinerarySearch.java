@@ -0,0 +1,258 @@
+package com.example.service;
+
+import com.example.model.Itinerary;
+import com.example.model.Ticket;
+import com.example.model.TicketTable;
+import com.example.utils.LongHeap;
+import com.example.utils.PriceUtils;
+import com.example.utils.TimeUtils;
+import com.example.utils.ZoneOffsetTable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Connection search over the tickets of a {@link TicketTable}, for journeys of one or more legs.
+ * <p>
+ * Every ticket is a connection between two airports. The connections are converted to UTC minutes and
+ * sorted by departure into primitive arrays once; queries are single scans over that order in the style of the
+ * Connection Scan Algorithm (Dibbelt et al.). A leg can follow another one at the same airport if it departs
+ * at least the minimum connection time after the previous leg arrives; no connection time applies at the origin.
+ * Tickets that arrive before they depart are ignored. The search is immutable and thread-safe.
+ */
+public class ItinerarySearch {
+
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final TicketTable tickets;
+    private final ZoneOffsetTable[] zones;
+    // Connections ordered by UTC departure
+    private final int[] rows;
+    private final int[] departures;
+    private final int[] arrivals;
+    private final int[] origins;
+    private final int[] destinations;
+    private final boolean nonNegativePrices;
+
+    /**
+     * @throws IllegalArgumentException if an airport of the tickets is not recognized.
+     */
+    public ItinerarySearch(TicketTable tickets) {
+        this.tickets = tickets;
+        zones = new ZoneOffsetTable[tickets.airportCount()];
+        for (int id = 0; id < zones.length; id++) {
+            zones[id] = TimeUtils.getOffsetTable(tickets.airportCode(id));
+        }
+
+        // Sort (departure, row) pairs packed into longs, so that no boxed comparator is needed
+        long[] keys = new long[tickets.size()];
+        int count = 0;
+        boolean nonNegative = true;
+        for (int row = 0; row < tickets.size(); row++) {
+            long departure = zones[tickets.originId(row)].toEpochMinute(tickets.departure(row));
+            long arrival = zones[tickets.destinationId(row)].toEpochMinute(tickets.arrival(row));
+            if (arrival < departure) continue;
+            keys[count++] = departure << 32 | row;
+            nonNegative &= tickets.price(row) >= 0;
+        }
+        Arrays.sort(keys, 0, count);
+
+        rows = new int[count];
+        departures = new int[count];
+        arrivals = new int[count];
+        origins = new int[count];
+        destinations = new int[count];
+        for (int c = 0; c < count; c++) {
+            int row = (int) keys[c];
+            rows[c] = row;
+            departures[c] = (int) (keys[c] >> 32);
+            origins[c] = tickets.originId(row);
+            destinations[c] = tickets.destinationId(row);
+            arrivals[c] = (int) zones[destinations[c]].toEpochMinute(tickets.arrival(row));
+        }
+        nonNegativePrices = nonNegative;
+    }
+
+    /**
+     * @return The number of searchable connections.
+     */
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * Finds the journey that arrives first.
+     *
+     * @param departAfter          The earliest departure, in local minutes at the origin,
+     *                             see {@link TimeUtils#toEpochMinutes(String, String)}.
+     * @param minConnectionMinutes The minimum time between legs at a transfer airport.
+     * @return The itinerary, or {@code null} if the destination cannot be reached.
+     */
+    public Itinerary findEarliestArrival(String origin, String destination, int departAfter, int minConnectionMinutes) {
+        int originId = tickets.airportId(origin);
+        int destinationId = tickets.airportId(destination);
+        checkQuery(originId, destinationId, minConnectionMinutes);
+        if (originId < 0 || destinationId < 0) {
+            return null;
+        }
+
+        long start = zones[originId].toEpochMinute(departAfter);
+        int[] arrival = new int[zones.length];
+        int[] lastLeg = new int[zones.length];
+        Arrays.fill(arrival, UNREACHED);
+        for (int c = firstDeparture(start); c < departures.length; c++) {
+            int departure = departures[c];
+            if (departure >= arrival[destinationId]) break;
+            int from = origins[c];
+            if (from != originId && (arrival[from] == UNREACHED || (long) arrival[from] + minConnectionMinutes > departure)) {
+                continue;
+            }
+            int to = destinations[c];
+            if (to != originId && arrivals[c] < arrival[to]) {
+                arrival[to] = arrivals[c];
+                lastLeg[to] = c;
+            }
+        }
+        if (arrival[destinationId] == UNREACHED) {
+            return null;
+        }
+
+        // Arrivals only improve through connections departing before the improved arrival,
+        // so the recorded legs still form a valid journey
+        List<Integer> legs = new ArrayList<>();
+        for (int airport = destinationId; airport != originId; airport = origins[legs.get(legs.size() - 1)]) {
+            legs.add(lastLeg[airport]);
+        }
+        Collections.reverse(legs);
+        return toItinerary(legs);
+    }
+
+    /**
+     * Finds the journey with the lowest total price that arrives within the travel time; among equally priced
+     * journeys the one found first. Only the connections departing within the travel time are scanned.
+     *
+     * @param departAfter          The earliest departure, in local minutes at the origin.
+     * @param minConnectionMinutes The minimum time between legs at a transfer airport.
+     * @param maxTravelMinutes     The longest time from {@code departAfter} to the arrival at the destination.
+     * @return The itinerary, or {@code null} if the destination cannot be reached in time.
+     */
+    public Itinerary findCheapest(String origin, String destination, int departAfter, int minConnectionMinutes,
+                                  int maxTravelMinutes) {
+        int originId = tickets.airportId(origin);
+        int destinationId = tickets.airportId(destination);
+        checkQuery(originId, destinationId, minConnectionMinutes);
+        if (maxTravelMinutes < 0) {
+            throw new IllegalArgumentException("Maximum travel time must not be negative: " + maxTravelMinutes);
+        }
+        if (originId < 0 || destinationId < 0) {
+            return null;
+        }
+
+        long start = zones[originId].toEpochMinute(departAfter);
+        long latestArrival = start + maxTravelMinutes;
+        int first = firstDeparture(start);
+        // Connections departing after the latest arrival cannot arrive in time
+        int last = firstDeparture(latestArrival + 1);
+        // Per-connection state covers the scanned range only, indexed from the first connection
+        long[] cost = new long[last - first];
+        int[] previousLeg = new int[last - first];
+        // Arrived connections wait in a heap per airport, keyed by arrival, until the connection time has passed;
+        // then the cheapest of them is the best way to be at that airport
+        LongHeap[] waiting = new LongHeap[zones.length];
+        long[] cheapestReady = new long[zones.length];
+        int[] cheapestReadyLeg = new int[zones.length];
+        Arrays.fill(cheapestReady, Long.MAX_VALUE);
+        long best = Long.MAX_VALUE;
+        int bestLeg = -1;
+
+        for (int c = first; c < last; c++) {
+            if (arrivals[c] > latestArrival) continue;
+            int from = origins[c];
+            LongHeap heap = waiting[from];
+            while (heap != null && !heap.isEmpty()
+                    && (heap.peek() >> 32) + minConnectionMinutes <= departures[c]) {
+                int leg = (int) heap.poll();
+                if (cost[leg - first] < cheapestReady[from]) {
+                    cheapestReady[from] = cost[leg - first];
+                    cheapestReadyLeg[from] = leg;
+                }
+            }
+
+            int i = c - first;
+            if (from == originId) {
+                cost[i] = tickets.price(rows[c]);
+                previousLeg[i] = -1;
+            } else if (cheapestReady[from] != Long.MAX_VALUE) {
+                cost[i] = Math.addExact(cheapestReady[from], tickets.price(rows[c]));
+                previousLeg[i] = cheapestReadyLeg[from];
+            } else {
+                continue;
+            }
+
+            int to = destinations[c];
+            if (to == destinationId) {
+                if (cost[i] < best) {
+                    best = cost[i];
+                    bestLeg = c;
+                }
+            } else if (to != originId && !(nonNegativePrices && cost[i] >= best)) {
+                if (waiting[to] == null) {
+                    waiting[to] = new LongHeap();
+                }
+                waiting[to].add((long) arrivals[c] << 32 | c);
+            }
+        }
+        if (bestLeg < 0) {
+            return null;
+        }
+
+        List<Integer> legs = new ArrayList<>();
+        for (int leg = bestLeg; leg >= 0; leg = previousLeg[leg - first]) {
+            legs.add(leg);
+        }
+        Collections.reverse(legs);
+        return toItinerary(legs);
+    }
+
+    private static void checkQuery(int originId, int destinationId, int minConnectionMinutes) {
+        if (originId >= 0 && originId == destinationId) {
+            throw new IllegalArgumentException("Origin and destination must differ");
+        }
+        if (minConnectionMinutes < 0) {
+            throw new IllegalArgumentException("Minimum connection time must not be negative: " + minConnectionMinutes);
+        }
+    }
+
+    /**
+     * @return The first connection departing at or after the UTC minute.
+     */
+    private int firstDeparture(long start) {
+        int low = 0;
+        int high = departures.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (departures[middle] < start) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private Itinerary toItinerary(List<Integer> legs) {
+        List<Ticket> legTickets = new ArrayList<>(legs.size());
+        long price = 0;
+        for (int leg : legs) {
+            legTickets.add(tickets.ticket(rows[leg]));
+            price = Math.addExact(price, tickets.price(rows[leg]));
+        }
+        int firstLeg = legs.get(0);
+        int lastLeg = legs.get(legs.size() - 1);
+        return new Itinerary(legTickets, Duration.ofMinutes(arrivals[lastLeg] - departures[firstLeg]),
+                PriceUtils.toBigDecimal(price, tickets.priceScale()));
+    }
+}
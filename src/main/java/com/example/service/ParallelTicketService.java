@@ -0,0 +1,275 @@
+package com.example.service;
+
+import com.example.model.Route;
+import com.example.model.RouteStats;
+import com.example.model.Ticket;
+import com.example.model.TicketTable;
+import com.example.utils.PriceUtils;
+import com.example.utils.TicketMetrics;
+import com.example.utils.ZoneOffsetTable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Fork-join counterparts of the {@link TicketService} analytics for large ticket sets.
+ * <p>
+ * The input is split in halves until a range holds at most {@code threshold} tickets; ranges are
+ * processed on the given pool and their partial results combined. Results are exactly those of the
+ * sequential methods: sums are kept in exact minor units and the median is still selected over the
+ * complete price array, only the per-ticket parsing runs in parallel.
+ * Lists should support fast random access.
+ * Batch route statistics are computed per range and merged route by route.
+ * The median of a {@link TicketTable} has no parallel counterpart: its prices are already parsed, so
+ * {@link TicketService#getMedianaPrice(TicketTable)} is left with a column copy and a linear selection.
+ */
+public class ParallelTicketService {
+
+    public static final int DEFAULT_THRESHOLD = 16 * 1024;
+
+    private final TicketService ticketService;
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    public ParallelTicketService(TicketService ticketService) {
+        this(ticketService, ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param pool      The pool running the tasks.
+     * @param threshold The largest number of tickets processed by a single task.
+     */
+    public ParallelTicketService(TicketService ticketService, ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive");
+        }
+        this.ticketService = ticketService;
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    public Map<String, Duration> getMinimalTimeForEachCarrier(
+            List<Ticket> tickets, String origin, String destination) {
+        return TicketMetrics.time("parallel.getMinimalTimeForEachCarrier.list", () -> reduce(tickets.size(), (from, to) -> {
+            Map<String, Duration> minFlightTimes = new HashMap<>();
+            for (int i = from; i < to; i++) {
+                Ticket ticket = tickets.get(i);
+                if (!ticket.origin().equals(origin) || !ticket.destination().equals(destination)) continue;
+                minFlightTimes.merge(ticket.carrier(), TicketService.getFlightDuration(ticket),
+                        (a, b) -> b.compareTo(a) < 0 ? b : a);
+            }
+            return minFlightTimes;
+        }, (left, right) -> {
+            right.forEach((carrier, duration) -> left.merge(carrier, duration, (a, b) -> b.compareTo(a) < 0 ? b : a));
+            return left;
+        }));
+    }
+
+    public Map<String, Duration> getMinimalTimeForEachCarrier(
+            TicketTable tickets, String origin, String destination) {
+        return TicketMetrics.time("parallel.getMinimalTimeForEachCarrier.table", () -> {
+            int originId = tickets.airportId(origin);
+            int destinationId = tickets.airportId(destination);
+            if (originId < 0 || destinationId < 0) {
+                return new HashMap<>();
+            }
+
+            int[] minMinutes = reduce(tickets.size(), (from, to) -> {
+                int[] partial = TicketService.newMinMinutes(tickets);
+                ZoneOffsetTable[] zones = null;
+                for (int row = from; row < to; row++) {
+                    if (tickets.originId(row) != originId || tickets.destinationId(row) != destinationId) continue;
+                    if (zones == null) {
+                        zones = TicketService.routeZones(origin, destination);
+                    }
+                    TicketService.updateMinMinutes(tickets, row, partial, zones);
+                }
+                return partial;
+            }, (left, right) -> {
+                for (int i = 0; i < left.length; i++) {
+                    left[i] = Math.min(left[i], right[i]);
+                }
+                return left;
+            });
+
+            return TicketService.toMinFlightTimes(tickets, minMinutes);
+        });
+    }
+
+    public BigDecimal getAveragePrice(List<Ticket> tickets) {
+        return TicketMetrics.time("parallel.getAveragePrice.list", () -> {
+            if (tickets.isEmpty()) {
+                throw new IllegalArgumentException("Tickets list is empty");
+            }
+
+            // Partial results are {sum, scale}
+            long[] sumAndScale;
+            try {
+                sumAndScale = reduce(tickets.size(), (from, to) -> {
+                    long sum = 0;
+                    int scale = 0;
+                    for (int i = from; i < to; i++) {
+                        String price = tickets.get(i).price();
+                        sum = Math.addExact(sum, PriceUtils.toMinorUnits(price));
+                        scale = Math.max(scale, PriceUtils.scaleOf(price));
+                    }
+                    return new long[]{sum, scale};
+                }, (left, right) -> new long[]{Math.addExact(left[0], right[0]), Math.max(left[1], right[1])});
+            } catch (ArithmeticException e) {
+                // More fractional digits than minor units hold, or a sum beyond long
+                return ticketService.getAveragePrice(tickets);
+            }
+
+            return PriceUtils.divide(sumAndScale[0], tickets.size(), (int) sumAndScale[1], RoundingMode.HALF_UP);
+        });
+    }
+
+    public BigDecimal getAveragePrice(TicketTable tickets) {
+        return TicketMetrics.time("parallel.getAveragePrice.table", () -> {
+            if (tickets.isEmpty()) {
+                throw new IllegalArgumentException("Tickets list is empty");
+            }
+
+            long sum = reduce(tickets.size(), (from, to) -> {
+                long partial = 0;
+                for (int row = from; row < to; row++) {
+                    partial = Math.addExact(partial, tickets.price(row));
+                }
+                return partial;
+            }, Math::addExact);
+
+            return PriceUtils.divide(sum, tickets.size(), tickets.priceScale(), RoundingMode.HALF_UP);
+        });
+    }
+
+    public BigDecimal getMedianaPrice(List<Ticket> tickets) {
+        return TicketMetrics.time("parallel.getMedianaPrice.list", () -> {
+            if (tickets.isEmpty()) {
+                throw new IllegalArgumentException("Tickets list is empty");
+            }
+
+            long[] prices = new long[tickets.size()];
+            try {
+                pool.invoke(new ParseTask(tickets, prices, 0, prices.length, threshold));
+            } catch (ArithmeticException e) {
+                // Prices that do not fit minor units take the exact sequential path
+                return ticketService.getMedianaPrice(tickets);
+            }
+            return TicketService.median(tickets, prices);
+        });
+    }
+
+    /**
+     * Parallel counterpart of {@link TicketService#getRouteStats(List, Collection)}.
+     */
+    public Map<Route, RouteStats> getRouteStats(List<Ticket> tickets, Collection<Route> routes) {
+        return TicketMetrics.time("parallel.getRouteStats.listRoutes", () -> reduce(tickets.size(),
+                (from, to) -> ticketService.routeStats(tickets, routes, from, to), ParallelTicketService::mergeRouteStats));
+    }
+
+    public Map<Route, RouteStats> getAllRouteStats(List<Ticket> tickets) {
+        return TicketMetrics.time("parallel.getAllRouteStats.list", () -> reduce(tickets.size(),
+                (from, to) -> ticketService.routeStats(tickets, null, from, to), ParallelTicketService::mergeRouteStats));
+    }
+
+    public Map<Route, RouteStats> getRouteStats(TicketTable tickets, Collection<Route> routes) {
+        return TicketMetrics.time("parallel.getRouteStats.tableRoutes", () -> reduce(tickets.size(),
+                (from, to) -> TicketService.routeStats(tickets, routes, from, to), ParallelTicketService::mergeRouteStats));
+    }
+
+    public Map<Route, RouteStats> getAllRouteStats(TicketTable tickets) {
+        return TicketMetrics.time("parallel.getAllRouteStats.table", () -> reduce(tickets.size(),
+                (from, to) -> TicketService.routeStats(tickets, null, from, to), ParallelTicketService::mergeRouteStats));
+    }
+
+    /**
+     * Merges the statistics of the right range into those of the left one, keeping the left ticket order.
+     */
+    private static Map<Route, RouteStats> mergeRouteStats(Map<Route, RouteStats> left, Map<Route, RouteStats> right) {
+        for (Map.Entry<Route, RouteStats> entry : right.entrySet()) {
+            left.merge(entry.getKey(), entry.getValue(), RouteStats::merge);
+        }
+        return left;
+    }
+
+    private <R> R reduce(int size, RangeFunction<R> leaf, BinaryOperator<R> combiner) {
+        return pool.invoke(new ReduceTask<>(leaf, combiner, 0, size, threshold));
+    }
+
+    @FunctionalInterface
+    private interface RangeFunction<R> {
+        R apply(int from, int to);
+    }
+
+    private static class ReduceTask<R> extends RecursiveTask<R> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final RangeFunction<R> leaf;
+        private final BinaryOperator<R> combiner;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        ReduceTask(RangeFunction<R> leaf, BinaryOperator<R> combiner, int from, int to, int threshold) {
+            this.leaf = leaf;
+            this.combiner = combiner;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= threshold) {
+                return leaf.apply(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            ReduceTask<R> left = new ReduceTask<>(leaf, combiner, from, middle, threshold);
+            left.fork();
+            R right = new ReduceTask<>(leaf, combiner, middle, to, threshold).compute();
+            return combiner.apply(left.join(), right);
+        }
+    }
+
+    private static class ParseTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Ticket> tickets;
+        private final long[] prices;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        ParseTask(List<Ticket> tickets, long[] prices, int from, int to, int threshold) {
+            this.tickets = tickets;
+            this.prices = prices;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    prices[i] = PriceUtils.toMinorUnits(tickets.get(i).price());
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParseTask(tickets, prices, from, middle, threshold),
+                    new ParseTask(tickets, prices, middle, to, threshold));
+        }
+    }
+}
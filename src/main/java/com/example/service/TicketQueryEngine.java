@@ -0,0 +1,249 @@
+package com.example.service;
+
+import com.example.enums.TicketDecoderType;
+import com.example.enums.TicketSourceType;
+import com.example.model.RouteStats;
+import com.example.model.TicketDataset;
+import com.example.model.TicketTable;
+import com.example.utils.PriceUtils;
+import com.example.utils.ResultCache;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Long-lived query engine over a shared ticket dataset, for many concurrent readers.
+ * <p>
+ * The engine publishes the current {@link TicketDataset} through an {@link AtomicReference}. Every query reads
+ * the reference once and then works on that immutable generation, so uncached reads take no locks and never
+ * wait, including on virtual threads. A reload builds the new table and its index first and then swaps the
+ * reference: queries already running finish on the previous generation, later queries see the new one.
+ * Use {@link #dataset()} to run several queries against the same generation.
+ * <p>
+ * Optionally, minimal flight times, average and median prices are cached in a {@link ResultCache}. Every
+ * generation has its own empty cache, published together with the dataset, so a reload drops every earlier
+ * result in the same swap. Cached queries serialize on the cache lock for the duration of a hash map lookup.
+ * Callers cache their own results derived from a generation, such as formatted reports, through
+ * {@link #cached(TicketDataset, Object, Function)}.
+ */
+public class TicketQueryEngine {
+
+    private final TicketService ticketService;
+    private final AtomicReference<Generation> generation;
+
+    /**
+     * Creates an engine over an empty dataset of version 0, without result cache.
+     */
+    public TicketQueryEngine() {
+        this(new TicketService());
+    }
+
+    public TicketQueryEngine(TicketService ticketService) {
+        this(ticketService, null);
+    }
+
+    /**
+     * Creates an engine that caches query results.
+     *
+     * @param cacheSize The maximum number of cached results.
+     * @param cacheTtl  How long a result stays cached, or {@code null} to keep it until evicted or reloaded.
+     */
+    public TicketQueryEngine(TicketService ticketService, int cacheSize, Duration cacheTtl) {
+        this(ticketService, new ResultCache<>(cacheSize, cacheTtl));
+    }
+
+    private TicketQueryEngine(TicketService ticketService, ResultCache<Object, Object> cache) {
+        this.ticketService = ticketService;
+        this.generation = new AtomicReference<>(
+                new Generation(TicketDataset.of(new TicketTable.Builder().build(), 0), cache));
+    }
+
+    /**
+     * Indexes the tickets and publishes them as the next version of the dataset.
+     *
+     * @return The published dataset.
+     */
+    public TicketDataset load(TicketTable tickets) {
+        TicketDataset next = TicketDataset.of(tickets, 0);
+        // Only the version and the empty cache are created inside the swap, so a retry after a concurrent
+        // reload is cheap
+        Generation published = generation.updateAndGet(current -> new Generation(
+                new TicketDataset(next.tickets(), next.routeIndex(), next.departureIndex(),
+                        current.dataset().version() + 1),
+                current.cache() != null ? current.cache().emptyCopy() : null));
+        return published.dataset();
+    }
+
+    /**
+     * Reads the tickets with {@link TicketService#readTicketTable(String, TicketSourceType, TicketDecoderType)}
+     * and publishes them. The current dataset stays in service while the source is read, and is kept if reading fails.
+     */
+    public TicketDataset load(String jsonOrPath, TicketSourceType sourceType, TicketDecoderType decoderType) {
+        return load(ticketService.readTicketTable(jsonOrPath, sourceType, decoderType));
+    }
+
+    /**
+     * @return The current generation of the dataset.
+     */
+    public TicketDataset dataset() {
+        return generation.get().dataset();
+    }
+
+    public long version() {
+        return dataset().version();
+    }
+
+    /**
+     * @return The minimal flight time per carrier; the map is unmodifiable when results are cached.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Duration> getMinimalTimeForEachCarrier(String origin, String destination) {
+        return (Map<String, Duration>) query(Query.MINIMAL_TIMES, origin, destination, (current, o, d) ->
+                ticketService.getMinimalTimeForEachCarrier(current.tickets(), current.routeIndex(), o, d));
+    }
+
+    public TicketTable getTicketsWithOriginAndDestination(String origin, String destination) {
+        TicketDataset current = dataset();
+        return ticketService.getTicketsWithOriginAndDestination(
+                current.tickets(), current.routeIndex(), origin, destination);
+    }
+
+    public BigDecimal getAveragePrice(String origin, String destination) {
+        return (BigDecimal) query(Query.AVERAGE_PRICE, origin, destination, TicketQueryEngine::computeAveragePrice);
+    }
+
+    public BigDecimal getMedianaPrice(String origin, String destination) {
+        return (BigDecimal) query(Query.MEDIANA_PRICE, origin, destination, TicketQueryEngine::computeMedianaPrice);
+    }
+
+    public RouteStats getRouteStats(String origin, String destination) {
+        TicketDataset current = dataset();
+        return ticketService.getRouteStats(current.tickets(), current.routeIndex(), origin, destination);
+    }
+
+    /**
+     * Same as {@link #getMinimalTimeForEachCarrier(String, String)} for the tickets departing in the window
+     * {@code [from, to)} of local departure minutes. Window queries are not cached.
+     */
+    public Map<String, Duration> getMinimalTimeForEachCarrier(String origin, String destination, int from, int to) {
+        TicketDataset current = dataset();
+        return ticketService.getMinimalTimeForEachCarrier(
+                current.tickets(), current.departureIndex(), origin, destination, from, to);
+    }
+
+    public TicketTable getTicketsWithOriginAndDestination(String origin, String destination, int from, int to) {
+        TicketDataset current = dataset();
+        return ticketService.getTicketsWithOriginAndDestination(
+                current.tickets(), current.departureIndex(), origin, destination, from, to);
+    }
+
+    public BigDecimal getAveragePrice(String origin, String destination, int from, int to) {
+        TicketDataset current = dataset();
+        return averagePrice(current.tickets(), nonEmpty(current.departureIndex().rows(origin, destination, from, to)));
+    }
+
+    public BigDecimal getMedianaPrice(String origin, String destination, int from, int to) {
+        TicketDataset current = dataset();
+        return medianaPrice(current.tickets(), nonEmpty(current.departureIndex().rows(origin, destination, from, to)));
+    }
+
+    public RouteStats getRouteStats(String origin, String destination, int from, int to) {
+        return getRouteStats(dataset(), origin, destination, from, to);
+    }
+
+    /**
+     * Same as {@link #getRouteStats(String, String, int, int)} on a generation returned by {@link #dataset()}.
+     */
+    public RouteStats getRouteStats(TicketDataset dataset, String origin, String destination, int from, int to) {
+        return ticketService.getRouteStats(dataset.tickets(), dataset.departureIndex(), origin, destination, from, to);
+    }
+
+    /**
+     * Answers a request on a generation returned by {@link #dataset()}, through the result cache of that generation
+     * while it is still current. Without a cache, or once the generation is replaced, the answer is computed anew.
+     *
+     * @param request Identifies the answer within the generation, compared by {@code equals}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T cached(TicketDataset dataset, Object request, Function<TicketDataset, T> function) {
+        Generation current = generation.get();
+        if (current.cache() == null || current.dataset() != dataset) {
+            return function.apply(dataset);
+        }
+        return (T) current.cache().get(new RequestKey(request), key -> function.apply(dataset));
+    }
+
+    /**
+     * @return The statistics of the result cache over all generations, or {@code null} if results are not cached.
+     */
+    public ResultCache.Stats cacheStats() {
+        ResultCache<Object, Object> cache = generation.get().cache();
+        return cache != null ? cache.stats() : null;
+    }
+
+    private static BigDecimal computeAveragePrice(TicketDataset current, String origin, String destination) {
+        return averagePrice(current.tickets(), nonEmpty(current.routeIndex().rows(origin, destination)));
+    }
+
+    private static BigDecimal computeMedianaPrice(TicketDataset current, String origin, String destination) {
+        return medianaPrice(current.tickets(), nonEmpty(current.routeIndex().rows(origin, destination)));
+    }
+
+    private static BigDecimal averagePrice(TicketTable tickets, int[] rows) {
+        long sum = 0;
+        for (int row : rows) {
+            sum = Math.addExact(sum, tickets.price(row));
+        }
+        return PriceUtils.divide(sum, rows.length, tickets.priceScale(), RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal medianaPrice(TicketTable tickets, int[] rows) {
+        long[] prices = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            prices[i] = tickets.price(rows[i]);
+        }
+        return TicketService.median(prices, tickets.priceScale());
+    }
+
+    private Object query(Query query, String origin, String destination, QueryFunction function) {
+        Generation current = generation.get();
+        if (current.cache() == null) {
+            return function.apply(current.dataset(), origin, destination);
+        }
+        return current.cache().get(new QueryKey(query, origin, destination), key -> {
+            Object result = function.apply(current.dataset(), origin, destination);
+            return result instanceof Map<?, ?> map ? Map.copyOf(map) : result;
+        });
+    }
+
+    private static int[] nonEmpty(int[] rows) {
+        if (rows.length == 0) {
+            throw new IllegalArgumentException("Tickets list is empty");
+        }
+        return rows;
+    }
+
+    private enum Query {
+        MINIMAL_TIMES,
+        AVERAGE_PRICE,
+        MEDIANA_PRICE
+    }
+
+    private record QueryKey(Query query, String origin, String destination) {
+    }
+
+    private record RequestKey(Object request) {
+    }
+
+    private record Generation(TicketDataset dataset, ResultCache<Object, Object> cache) {
+    }
+
+    @FunctionalInterface
+    private interface QueryFunction {
+        Object apply(TicketDataset dataset, String origin, String destination);
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.service;
+
+import com.example.enums.TicketDecoderType;
+import com.example.enums.TicketSourceType;
+import com.example.model.RouteStats;
+import com.example.model.TicketDataset;
+import com.example.utils.TicketMetrics;
+import com.example.utils.TimeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resident analytics server: reads the tickets once into a {@link TicketQueryEngine} and answers route queries
+ * over a line protocol, on standard input and output or on a loopback TCP port.
+ * <p>
+ * Every request is one line, every response is one or more lines followed by an empty line:
+ * <pre>
+ * STATS origin destination [fromDate toDate]  the route report in the format of the one-shot run, for the
+ *                                             tickets departing between the dates (dd.MM.yy, both inclusive)
+ *                                             if they are given
+ * RELOAD                                      reads the source again, answers "OK version N tickets M"
+ * PING                                        answers "PONG"
+ * QUIT                                        closes the connection, without response
+ * SHUTDOWN                                    stops the server, without response
+ * </pre>
+ * A failed request is answered with a single "ERROR message" line. Reports are cached by the engine, when it
+ * is created with a result cache, so repeated queries on a dataset version are answered without touching the
+ * tickets. Prices are reported at the price scale of the
+ * whole dataset, see {@link com.example.model.TicketTable#priceScale()}, while the one-shot run uses the scales
+ * of the route's own prices, so the two differ in trailing zeros when the dataset mixes price scales.
+ */
+public class TicketServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 7171;
+
+    private static final Logger log = LoggerFactory.getLogger(TicketServer.class);
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private final TicketQueryEngine engine;
+    private final String jsonOrPath;
+    private final TicketSourceType sourceType;
+    private final Set<Socket> openConnections = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "ticket-server-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile ServerSocket serverSocket;
+
+    /**
+     * Creates a server over the source; call {@link #load()} before serving.
+     */
+    public TicketServer(TicketQueryEngine engine, String jsonOrPath, TicketSourceType sourceType) {
+        this.engine = engine;
+        this.jsonOrPath = jsonOrPath;
+        this.sourceType = sourceType;
+    }
+
+    /**
+     * Reads the source and publishes it as the next dataset version.
+     */
+    public TicketDataset load() {
+        return engine.load(jsonOrPath, sourceType, TicketDecoderType.NATIVE);
+    }
+
+    /**
+     * Answers one request line.
+     *
+     * @return The response lines joined with '\n', without the terminating empty line.
+     */
+    public String handle(String request) {
+        long start = TicketMetrics.startTimer();
+        try {
+            String[] parts = request.strip().split("\\s+");
+            return switch (parts[0]) {
+                case "STATS" -> stats(parts);
+                case "RELOAD" -> {
+                    TicketDataset dataset = load();
+                    yield "OK version " + dataset.version() + " tickets " + dataset.tickets().size();
+                }
+                case "PING" -> "PONG";
+                default -> "ERROR Unknown command: " + parts[0];
+            };
+        } catch (RuntimeException e) {
+            log.error("Cannot answer request {}", request);
+            return "ERROR " + e.getMessage();
+        } finally {
+            TicketMetrics.recordLatency("serverRequest", start);
+        }
+    }
+
+    /**
+     * Answers the requests of a connection until it ends or asks to quit. The streams are not closed.
+     */
+    public void serve(BufferedReader reader, Writer writer) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String request = line.strip();
+            if (request.isEmpty()) continue;
+            if (request.equals("QUIT")) break;
+            if (request.equals("SHUTDOWN")) {
+                close();
+                break;
+            }
+            writer.write(handle(request));
+            writer.write("\n\n");
+            writer.flush();
+        }
+    }
+
+    /**
+     * Serves standard input and output until the input ends.
+     */
+    public void serveStandardStreams() throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        serve(reader, writer);
+    }
+
+    /**
+     * Starts accepting connections on the loopback interface, each served by its own thread.
+     *
+     * @param port The port, or 0 for any free port.
+     * @return The bound port.
+     */
+    public int start(int port) throws IOException {
+        ServerSocket socket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        serverSocket = socket;
+        Thread acceptor = new Thread(() -> accept(socket), "ticket-server-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Serving tickets on port {}", socket.getLocalPort());
+        return socket.getLocalPort();
+    }
+
+    /**
+     * Waits until the server is closed, by {@link #close()} or a SHUTDOWN request.
+     */
+    public void awaitTermination() throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     */
+    @Override
+    public void close() {
+        ServerSocket socket = serverSocket;
+        try {
+            if (socket != null) {
+                socket.close();
+            }
+        } catch (IOException e) {
+            log.error("Cannot close server socket");
+        }
+        connections.shutdownNow();
+        for (Socket connection : openConnections) {
+            closeQuietly(connection);
+        }
+        stopped.countDown();
+    }
+
+    /**
+     * Formats route statistics as the lines of the one-shot report: the minimal flight time per carrier,
+     * then the average price, the median price and their difference.
+     *
+     * @throws IllegalArgumentException if the route has no tickets.
+     */
+    public static List<String> formatRouteStats(RouteStats routeStats) {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, Duration> entry : routeStats.getMinimalTimeForEachCarrier().entrySet()) {
+            Duration duration = entry.getValue();
+            lines.add(String.format("Carrier: %s, minimal flight time: %d hours %d min",
+                    entry.getKey(), duration.toHours(), duration.toMinutesPart()));
+        }
+
+        BigDecimal averagePrice = routeStats.getAveragePrice();
+        BigDecimal medianaPrice = routeStats.getMedianaPrice();
+        lines.add(String.format("Average price: %s", averagePrice));
+        lines.add(String.format("Mediana price: %s", medianaPrice));
+        lines.add(String.format("Average price - mediana price: %s", averagePrice.subtract(medianaPrice)));
+        return lines;
+    }
+
+    private String stats(String[] parts) {
+        if (parts.length != 3 && parts.length != 5) {
+            throw new IllegalArgumentException("Usage: STATS origin destination [fromDate toDate]");
+        }
+        // One generation answers the whole request and caches its response
+        return engine.cached(engine.dataset(), String.join(" ", parts), dataset -> {
+            String origin = parts[1];
+            String destination = parts[2];
+            int from = Integer.MIN_VALUE;
+            int to = Integer.MAX_VALUE;
+            if (parts.length == 5) {
+                from = (int) (TimeUtils.toEpochDay(parts[3]) * TimeUtils.MINUTES_PER_DAY);
+                to = (int) ((TimeUtils.toEpochDay(parts[4]) + 1) * TimeUtils.MINUTES_PER_DAY);
+            }
+            RouteStats routeStats = engine.getRouteStats(dataset, origin, destination, from, to);
+            if (routeStats.isEmpty()) {
+                throw new IllegalArgumentException("No tickets for route " + origin + "-" + destination);
+            }
+            return String.join("\n", formatRouteStats(routeStats));
+        });
+    }
+
+    private void accept(ServerSocket socket) {
+        try {
+            while (true) {
+                Socket connection = socket.accept();
+                connection.setTcpNoDelay(true);
+                try {
+                    connections.execute(() -> serve(connection));
+                } catch (RejectedExecutionException e) {
+                    closeQuietly(connection);
+                }
+            }
+        } catch (IOException e) {
+            // A closed socket means close() is running, it signals termination once the connections are closed
+            if (!socket.isClosed()) {
+                log.error("Server socket error");
+                close();
+            }
+        }
+    }
+
+    private void serve(Socket connection) {
+        openConnections.add(connection);
+        try (connection) {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+            Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8));
+            serve(reader, writer);
+        } catch (IOException e) {
+            if (!connection.isClosed()) {
+                log.error("Connection error");
+            }
+        } finally {
+            openConnections.remove(connection);
+        }
+    }
+
+    private static void closeQuietly(Socket connection) {
+        try {
+            connection.close();
+        } catch (IOException e) {
+            // The connection is being discarded anyway
+        }
+    }
+}
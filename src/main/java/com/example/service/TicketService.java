@@ -1,29 +1,49 @@
 package com.example.service;
 
+import com.example.enums.TicketDecoderType;
 import com.example.enums.TicketSourceType;
+import com.example.mapper.TicketDecodingException;
+import com.example.mapper.TicketFiles;
+import com.example.mapper.TicketTableDecoder;
 import com.example.mapper.TicketsMapper;
+import com.example.mapper.TolerantTicketParser;
+import com.example.model.DepartureIndex;
+import com.example.model.Route;
+import com.example.model.RouteIndex;
+import com.example.model.RouteStats;
 import com.example.model.Ticket;
+import com.example.model.TicketParseResult;
+import com.example.model.TicketSnapshot;
+import com.example.model.TicketTable;
 import com.example.model.TicketsWrapper;
+import com.example.utils.PriceUtils;
+import com.example.utils.QuantileSketch;
+import com.example.utils.SelectionUtils;
+import com.example.utils.TicketMetrics;
 import com.example.utils.TimeUtils;
+import com.example.utils.ZoneOffsetTable;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class TicketService {
 
     private static final Logger log = LoggerFactory.getLogger(TicketService.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int SHARD_PARALLELISM = Runtime.getRuntime().availableProcessors();
 
     public List<Ticket> readTickets(String jsonOrPath, TicketSourceType sourceType) {
         if (sourceType == null) {
@@ -48,6 +68,12 @@ public class TicketService {
                     log.error("Cannot read source file");
                     throw new RuntimeException(e);
                 }
+            case PATH:
+            case DIRECTORY: {
+                List<Ticket> tickets = new ArrayList<>();
+                readTickets(jsonOrPath, sourceType, tickets::add);
+                return tickets;
+            }
             default: {
                 log.error("Unknown source type: {}", sourceType);
                 throw new IllegalArgumentException("Unknown source type");
@@ -60,29 +86,223 @@ public class TicketService {
             throw new IllegalArgumentException("Json reading error");
         }
 
-        TicketsWrapper wrapper = objectMapper.readValue(json, TicketsWrapper.class);
+        long start = TicketMetrics.startTimer();
+        TicketsWrapper wrapper;
+        try {
+            wrapper = objectMapper.readValue(json, TicketsWrapper.class);
+        } catch (JsonProcessingException e) {
+            TicketMetrics.recordParseError();
+            throw e;
+        }
+
+        List<Ticket> tickets = wrapper.tickets() != null ? wrapper.tickets() : Collections.emptyList();
+        // The encoded size of a string is unknown without encoding it again
+        TicketMetrics.recordIngest("readTickets", -1, tickets.size(), start);
+        return tickets;
+    }
 
-        return wrapper.tickets() != null ? wrapper.tickets() : Collections.emptyList();
+    public Stream<Ticket> streamTickets(String jsonOrPath, TicketSourceType sourceType) {
+        if (sourceType == null) {
+            log.error("Source type cannot be null");
+            throw new IllegalArgumentException("Source type cannot be null");
+        }
+        switch (sourceType) {
+            case API:
+                if (jsonOrPath == null || jsonOrPath.isEmpty()) {
+                    log.error("Cannot read source json");
+                    throw new IllegalArgumentException("Json reading error");
+                }
+                try {
+                    return TicketsMapper.streamTickets(new StringReader(jsonOrPath));
+                } catch (IOException e) {
+                    log.error("JSON parsing error");
+                    throw new RuntimeException(e);
+                }
+            case FILE:
+                try {
+                    return TicketsMapper.streamTickets(jsonOrPath);
+                } catch (IOException e) {
+                    log.error("Cannot read source file");
+                    throw new RuntimeException(e);
+                }
+            case PATH:
+                try {
+                    return TicketFiles.streamTickets(Path.of(jsonOrPath));
+                } catch (IOException e) {
+                    log.error("Cannot read source file");
+                    throw new RuntimeException(e);
+                }
+            case DIRECTORY:
+                try {
+                    return TicketFiles.streamTickets(TicketFiles.listShards(Path.of(jsonOrPath)), SHARD_PARALLELISM);
+                } catch (IOException e) {
+                    log.error("Cannot read source directory");
+                    throw new RuntimeException(e);
+                }
+            default: {
+                log.error("Unknown source type: {}", sourceType);
+                throw new IllegalArgumentException("Unknown source type");
+            }
+        }
+    }
+
+    /**
+     * Reads tickets like {@link #readTickets(String, TicketSourceType)}, but skips invalid tickets instead of
+     * failing, see {@link TolerantTicketParser}. The input is read in bounded windows and parsed in chunks on
+     * several threads.
+     * <p>
+     * The validation is stricter than {@link #readTickets(String, TicketSourceType)}, which maps any ticket that
+     * binds: a kept ticket also fits a {@link TicketTable}, so prices with more than two decimals, which the list
+     * analytics accept, are reported as errors here.
+     *
+     * @return The valid tickets and a report of the skipped ones.
+     */
+    public TicketParseResult readTicketsTolerant(String jsonOrPath, TicketSourceType sourceType) {
+        if (sourceType == null) {
+            log.error("Source type cannot be null");
+            throw new IllegalArgumentException("Source type cannot be null");
+        }
+        switch (sourceType) {
+            case API:
+                if (jsonOrPath == null || jsonOrPath.isEmpty()) {
+                    log.error("Cannot read source json");
+                    throw new IllegalArgumentException("Json reading error");
+                }
+                try {
+                    return TolerantTicketParser.parse(jsonOrPath.getBytes(StandardCharsets.UTF_8), "api",
+                            SHARD_PARALLELISM);
+                } catch (TicketDecodingException e) {
+                    log.error("JSON parsing error");
+                    throw new RuntimeException(e);
+                }
+            case FILE:
+                try {
+                    return TolerantTicketParser.parseResource(jsonOrPath, SHARD_PARALLELISM);
+                } catch (IOException e) {
+                    log.error("Cannot read source file");
+                    throw new RuntimeException(e);
+                }
+            case PATH:
+                try {
+                    return TolerantTicketParser.parse(Path.of(jsonOrPath), SHARD_PARALLELISM);
+                } catch (IOException e) {
+                    log.error("Cannot read source file");
+                    throw new RuntimeException(e);
+                }
+            case DIRECTORY:
+                try {
+                    return TolerantTicketParser.parse(TicketFiles.listShards(Path.of(jsonOrPath)), SHARD_PARALLELISM);
+                } catch (IOException e) {
+                    log.error("Cannot read source directory");
+                    throw new RuntimeException(e);
+                }
+            default: {
+                log.error("Unknown source type: {}", sourceType);
+                throw new IllegalArgumentException("Unknown source type");
+            }
+        }
+    }
+
+    public void readTickets(String jsonOrPath, TicketSourceType sourceType, Consumer<Ticket> consumer) {
+        try (Stream<Ticket> tickets = streamTickets(jsonOrPath, sourceType)) {
+            tickets.forEach(consumer);
+        } catch (UncheckedIOException e) {
+            log.error("Ticket stream reading error");
+            throw new RuntimeException(e.getCause());
+        }
     }
 
     public Map<String, Duration> getMinimalTimeForEachCarrier(
             List<Ticket> tickets, String origin, String destination) {
-        Map<String, List<Ticket>> carrierFlightsMap = new HashMap<>();
-        for (Ticket ticket : tickets) {
-            if (!ticket.origin().equals(origin) || !ticket.destination().equals(destination)) continue;
-            carrierFlightsMap.computeIfAbsent(ticket.carrier(), k -> new ArrayList<>()).add(ticket);
+        return TicketMetrics.time("getMinimalTimeForEachCarrier.list", () -> {
+            Map<String, List<Ticket>> carrierFlightsMap = new HashMap<>();
+            for (Ticket ticket : tickets) {
+                if (!ticket.origin().equals(origin) || !ticket.destination().equals(destination)) continue;
+                carrierFlightsMap.computeIfAbsent(ticket.carrier(), k -> new ArrayList<>()).add(ticket);
+            }
+
+            Map<String, Duration> minFlightTimes = new HashMap<>();
+            for (Map.Entry<String, List<Ticket>> entry : carrierFlightsMap.entrySet()) {
+                String carrier = entry.getKey();
+                Duration minFlightTime = getMinFlightTime(entry.getValue());
+                minFlightTimes.put(carrier, minFlightTime);
+            }
+
+            return minFlightTimes;
+        });
+    }
+
+    public Map<String, Duration> getMinimalTimeForEachCarrier(
+            List<Ticket> tickets, RouteIndex routeIndex, String origin, String destination) {
+        if (!TicketMetrics.isEnabled()) {
+            return indexedMinimalTimes(tickets, routeIndex, origin, destination);
+        }
+        return TicketMetrics.time("getMinimalTimeForEachCarrier.listIndex",
+                () -> indexedMinimalTimes(tickets, routeIndex, origin, destination));
+    }
+
+    private Map<String, Duration> indexedMinimalTimes(
+            List<Ticket> tickets, RouteIndex routeIndex, String origin, String destination) {
+        checkIndex(tickets.size(), routeIndex);
+        Map<String, Duration> minFlightTimes = new HashMap<>();
+        for (Map.Entry<String, int[]> entry : routeIndex.carrierRows(origin, destination).entrySet()) {
+            Duration minFlightTime = null;
+            for (int row : entry.getValue()) {
+                Duration duration = getFlightDuration(tickets.get(row));
+                if (minFlightTime == null || duration.compareTo(minFlightTime) < 0) {
+                    minFlightTime = duration;
+                }
+            }
+            minFlightTimes.put(entry.getKey(), minFlightTime);
         }
 
+        return minFlightTimes;
+    }
+
+    /**
+     * Same as {@link #getMinimalTimeForEachCarrier(List, String, String)} for the tickets departing in the window.
+     *
+     * @param from The first local departure minute of the window, inclusive,
+     *             see {@link TimeUtils#toEpochMinutes(String, String)}.
+     * @param to   The end of the window, exclusive.
+     */
+    public Map<String, Duration> getMinimalTimeForEachCarrier(
+            List<Ticket> tickets, DepartureIndex departureIndex, String origin, String destination, int from, int to) {
+        if (!TicketMetrics.isEnabled()) {
+            return windowMinimalTimes(tickets, departureIndex, origin, destination, from, to);
+        }
+        return TicketMetrics.time("getMinimalTimeForEachCarrier.listWindow",
+                () -> windowMinimalTimes(tickets, departureIndex, origin, destination, from, to));
+    }
+
+    private Map<String, Duration> windowMinimalTimes(
+            List<Ticket> tickets, DepartureIndex departureIndex, String origin, String destination, int from, int to) {
+        checkIndex(tickets.size(), departureIndex);
         Map<String, Duration> minFlightTimes = new HashMap<>();
-        for (Map.Entry<String, List<Ticket>> entry : carrierFlightsMap.entrySet()) {
-            String carrier = entry.getKey();
-            Duration minFlightTime = getMinFlightTime(entry.getValue());
-            minFlightTimes.put(carrier, minFlightTime);
+        for (int row : departureIndex.rows(origin, destination, from, to)) {
+            Ticket ticket = tickets.get(row);
+            Duration duration = getFlightDuration(ticket);
+            Duration minFlightTime = minFlightTimes.get(ticket.carrier());
+            if (minFlightTime == null || duration.compareTo(minFlightTime) < 0) {
+                minFlightTimes.put(ticket.carrier(), duration);
+            }
         }
 
         return minFlightTimes;
     }
 
+    private static void checkIndex(int size, RouteIndex routeIndex) {
+        if (routeIndex.size() != size) {
+            throw new IllegalArgumentException("Route index was built for a different ticket set");
+        }
+    }
+
+    private static void checkIndex(int size, DepartureIndex departureIndex) {
+        if (departureIndex.size() != size) {
+            throw new IllegalArgumentException("Departure index was built for a different ticket set");
+        }
+    }
+
     private Duration getMinFlightTime(List<Ticket> tickets) {
         if (tickets.isEmpty()) throw new IllegalArgumentException("Tickets list is empty");
         Duration minDiration = null;
@@ -96,21 +316,14 @@ public class TicketService {
         return minDiration;
     }
 
-    private Duration getFlightDuration(Ticket ticket) {
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd.MM.yy");
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("H:mm");
-
-        LocalDateTime departure = LocalDateTime.of(
-                LocalDate.parse(ticket.departureDate(), dateFormatter),
-                LocalTime.parse(ticket.departureTime(), timeFormatter));
+    /**
+     * Computes the flight time from the ticket fields on every call.
+     */
+    public static Duration getFlightDuration(Ticket ticket) {
+        int departure = TimeUtils.toEpochMinutes(ticket.departureDate(), ticket.departureTime());
+        int arrival = TimeUtils.toEpochMinutes(ticket.arrivalDate(), ticket.arrivalTime());
 
-        LocalDateTime arrival = LocalDateTime.of(
-                LocalDate.parse(ticket.arrivalDate(), dateFormatter),
-                LocalTime.parse(ticket.arrivalTime(), timeFormatter));
-
-        Duration timeZoneCorrection = TimeUtils.getTimeZoneCorrection(ticket.origin(), ticket.destination());
-
-        return Duration.between(departure, arrival).plus(timeZoneCorrection);
+        return Duration.ofMinutes(TimeUtils.getFlightMinutes(ticket.origin(), departure, ticket.destination(), arrival));
     }
 
     public List<Ticket> getTicketsWithOriginAndDestination(List<Ticket> tickets, String origin, String destination) {
@@ -120,11 +333,54 @@ public class TicketService {
                 .toList();
     }
 
-    public BigDecimal getAveragePrice(List<Ticket> tickets) {
-        if (tickets.isEmpty()) {
-            throw new IllegalArgumentException("Tickets list is empty");
+    public List<Ticket> getTicketsWithOriginAndDestination(
+            List<Ticket> tickets, RouteIndex routeIndex, String origin, String destination) {
+        checkIndex(tickets.size(), routeIndex);
+        int[] rows = routeIndex.rows(origin, destination);
+        List<Ticket> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(tickets.get(row));
         }
+        return result;
+    }
+
+    /**
+     * @return The tickets of the route departing in the window {@code [from, to)}, in departure order.
+     */
+    public List<Ticket> getTicketsWithOriginAndDestination(
+            List<Ticket> tickets, DepartureIndex departureIndex, String origin, String destination, int from, int to) {
+        checkIndex(tickets.size(), departureIndex);
+        int[] rows = departureIndex.rows(origin, destination, from, to);
+        List<Ticket> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(tickets.get(row));
+        }
+        return result;
+    }
+
+    public BigDecimal getAveragePrice(List<Ticket> tickets) {
+        return TicketMetrics.time("getAveragePrice.list", () -> {
+            if (tickets.isEmpty()) {
+                throw new IllegalArgumentException("Tickets list is empty");
+            }
 
+            long sum = 0;
+            int scale = 0;
+            for (Ticket ticket : tickets) {
+                try {
+                    sum = Math.addExact(sum, PriceUtils.toMinorUnits(ticket.price()));
+                } catch (ArithmeticException e) {
+                    // More fractional digits than minor units hold, or a sum beyond long
+                    return exactAveragePrice(tickets);
+                }
+                scale = Math.max(scale, PriceUtils.scaleOf(ticket.price()));
+            }
+
+            return PriceUtils.divide(sum, tickets.size(), scale, RoundingMode.HALF_UP);
+        });
+    }
+
+    private static BigDecimal exactAveragePrice(List<Ticket> tickets) {
         BigDecimal sum = tickets.stream()
                 .map(ticket -> new BigDecimal(ticket.price()))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -133,22 +389,659 @@ public class TicketService {
     }
 
     public BigDecimal getMedianaPrice(List<Ticket> tickets) {
-        if (tickets.isEmpty()) {
-            throw new IllegalArgumentException("Tickets list is empty");
-        }
+        return TicketMetrics.time("getMedianaPrice.list", () -> {
+            if (tickets.isEmpty()) {
+                throw new IllegalArgumentException("Tickets list is empty");
+            }
 
-        List<BigDecimal> prices = new ArrayList<>(tickets.stream()
-                .map(t -> new BigDecimal(t.price()))
-                .toList());
-        prices.sort(Comparator.naturalOrder());
+            long[] prices;
+            try {
+                prices = toMinorUnits(tickets);
+            } catch (ArithmeticException e) {
+                // More fractional digits than minor units hold, or a price beyond long
+                return exactMedianaPrice(tickets);
+            }
+            return median(tickets, prices);
+        });
+    }
 
+    private static BigDecimal exactMedianaPrice(List<Ticket> tickets) {
+        List<BigDecimal> prices = sortedPrices(tickets);
         int size = prices.size();
         if (size % 2 == 1) {
             return prices.get(size / 2);
-        } else {
-            BigDecimal first = prices.get(size / 2 - 1);
-            BigDecimal second = prices.get(size / 2);
-            return first.add(second).divide(BigDecimal.valueOf(2), RoundingMode.CEILING);
         }
+        return prices.get(size / 2 - 1).add(prices.get(size / 2)).divide(BigDecimal.valueOf(2), RoundingMode.CEILING);
+    }
+
+    private static List<BigDecimal> sortedPrices(List<Ticket> tickets) {
+        List<BigDecimal> prices = new ArrayList<>(tickets.size());
+        for (Ticket ticket : tickets) {
+            prices.add(new BigDecimal(ticket.price()));
+        }
+        prices.sort(Comparator.naturalOrder());
+        return prices;
+    }
+
+    /**
+     * Returns the exact nearest-rank percentile of the ticket prices: the smallest price such that at least
+     * {@code percentile} percent of the prices are not greater than it.
+     *
+     * @param percentile The percentile in {@code (0, 100]}, e.g. 50, 90 or 99.
+     */
+    public BigDecimal getPercentilePrice(List<Ticket> tickets, double percentile) {
+        return TicketMetrics.time("getPercentilePrice.list", () -> {
+            if (tickets.isEmpty()) {
+                throw new IllegalArgumentException("Tickets list is empty");
+            }
+
+            int rank = percentileIndex(percentile, tickets.size());
+            long[] prices;
+            try {
+                prices = toMinorUnits(tickets);
+            } catch (ArithmeticException e) {
+                return sortedPrices(tickets).get(rank);
+            }
+            long price = SelectionUtils.select(prices.clone(), rank);
+            return new BigDecimal(tickets.get(indexOfRank(prices, price, rank)).price());
+        });
+    }
+
+    /**
+     * Estimates nearest-rank percentiles of the ticket prices in a single pass with a {@link QuantileSketch},
+     * for inputs too large to hold in memory. Results are exact while the stream holds fewer tickets than
+     * the sketch capacity, and within about {@code 1.7 / k} normalized rank error otherwise.
+     *
+     * @param percentiles The percentiles in {@code (0, 100]}.
+     * @return The estimated prices, in the order of the requested percentiles.
+     */
+    public List<BigDecimal> getApproximatePercentilePrices(Stream<Ticket> tickets, double... percentiles) {
+        for (double percentile : percentiles) {
+            checkPercentile(percentile);
+        }
+        QuantileSketch sketch = new QuantileSketch();
+        int[] scale = new int[1];
+        tickets.forEach(ticket -> {
+            sketch.add(PriceUtils.toMinorUnits(ticket.price()));
+            scale[0] = Math.max(scale[0], PriceUtils.scaleOf(ticket.price()));
+        });
+        if (sketch.isEmpty()) {
+            throw new IllegalArgumentException("Tickets list is empty");
+        }
+
+        List<BigDecimal> prices = new ArrayList<>(percentiles.length);
+        for (double percentile : percentiles) {
+            prices.add(PriceUtils.toBigDecimal(sketch.quantile(percentile / 100), scale[0]));
+        }
+        return prices;
+    }
+
+    private static long[] toMinorUnits(List<Ticket> tickets) {
+        long[] prices = new long[tickets.size()];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = PriceUtils.toMinorUnits(tickets.get(i).price());
+        }
+        return prices;
+    }
+
+    /**
+     * Selects the median of list prices in linear time, with the result of sorting the prices as written:
+     * the middle price itself, or the mean of the two middle prices rounded {@link RoundingMode#CEILING}
+     * at the larger of their scales.
+     *
+     * @param prices The prices of the tickets in minor units, in list order; the array is not modified.
+     */
+    static BigDecimal median(List<Ticket> tickets, long[] prices) {
+        int size = prices.length;
+        long[] selected = prices.clone();
+        long upper = SelectionUtils.select(selected, size / 2);
+        BigDecimal second = new BigDecimal(tickets.get(indexOfRank(prices, upper, size / 2)).price());
+        if (size % 2 == 1) {
+            return second;
+        }
+        long lower = SelectionUtils.max(selected, 0, size / 2);
+        BigDecimal first = new BigDecimal(tickets.get(indexOfRank(prices, lower, size / 2 - 1)).price());
+        return first.add(second).divide(BigDecimal.valueOf(2), RoundingMode.CEILING);
+    }
+
+    /**
+     * Equal prices may be written with different scales, so the one a stable sort would place at the rank
+     * is located: among the prices equal to the value, the one at the rank's offset in list order.
+     *
+     * @return The position of the price at the rank, in list order.
+     */
+    private static int indexOfRank(long[] prices, long value, int rank) {
+        int offset = rank;
+        for (long price : prices) {
+            if (price < value) {
+                offset--;
+            }
+        }
+        for (int i = 0; i < prices.length; i++) {
+            if (prices[i] == value && offset-- == 0) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Price " + value + " is not at rank " + rank);
+    }
+
+    /**
+     * Selects the median of the prices in linear time; the array is reordered.
+     */
+    static BigDecimal median(long[] prices, int scale) {
+        int size = prices.length;
+        long upper = SelectionUtils.select(prices, size / 2);
+        if (size % 2 == 1) {
+            return PriceUtils.toBigDecimal(upper, scale);
+        }
+        // After selection every price left of the middle is not greater, so the lower middle is their maximum
+        long lower = SelectionUtils.max(prices, 0, size / 2);
+        return PriceUtils.divide(Math.addExact(lower, upper), 2, scale, RoundingMode.CEILING);
+    }
+
+    private static void checkPercentile(double percentile) {
+        if (!(percentile > 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be within (0, 100]: " + percentile);
+        }
+    }
+
+    private static int percentileIndex(double percentile, int size) {
+        checkPercentile(percentile);
+        return (int) Math.max(Math.ceil(percentile / 100 * size) - 1, 0);
+    }
+
+    public TicketTable readTicketTable(String jsonOrPath, TicketSourceType sourceType) {
+        try (Stream<Ticket> tickets = streamTickets(jsonOrPath, sourceType)) {
+            return TicketTable.of(tickets);
+        } catch (UncheckedIOException e) {
+            log.error("Ticket stream reading error");
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public TicketTable readTicketTable(String jsonOrPath, TicketSourceType sourceType, TicketDecoderType decoderType) {
+        if (decoderType == null) {
+            log.error("Decoder type cannot be null");
+            throw new IllegalArgumentException("Decoder type cannot be null");
+        }
+        if (decoderType == TicketDecoderType.JACKSON) {
+            return readTicketTable(jsonOrPath, sourceType);
+        }
+        if (sourceType == null) {
+            log.error("Source type cannot be null");
+            throw new IllegalArgumentException("Source type cannot be null");
+        }
+        switch (sourceType) {
+            case API:
+                if (jsonOrPath == null || jsonOrPath.isEmpty()) {
+                    log.error("Cannot read source json");
+                    throw new IllegalArgumentException("Json reading error");
+                }
+                try {
+                    return TicketTableDecoder.decode(jsonOrPath.getBytes(StandardCharsets.UTF_8));
+                } catch (TicketDecodingException e) {
+                    log.error("JSON parsing error");
+                    throw new RuntimeException(e);
+                }
+            case FILE:
+                try {
+                    return TicketTableDecoder.decodeResource(jsonOrPath);
+                } catch (IOException e) {
+                    log.error("Cannot read source file");
+                    throw new RuntimeException(e);
+                }
+            case PATH:
+                try {
+                    return TicketFiles.decodeTable(Path.of(jsonOrPath));
+                } catch (IOException e) {
+                    log.error("Cannot read source file");
+                    throw new RuntimeException(e);
+                }
+            case DIRECTORY:
+                try {
+                    return TicketFiles.decodeTable(TicketFiles.listShards(Path.of(jsonOrPath)), SHARD_PARALLELISM);
+                } catch (IOException e) {
+                    log.error("Cannot read source directory");
+                    throw new RuntimeException(e);
+                }
+            default: {
+                log.error("Unknown source type: {}", sourceType);
+                throw new IllegalArgumentException("Unknown source type");
+            }
+        }
+    }
+
+    /**
+     * Saves the table as a binary snapshot that {@link #readTicketSnapshot(Path)} maps back without parsing.
+     */
+    public void writeTicketSnapshot(TicketTable tickets, Path path) {
+        try {
+            TicketSnapshot.write(tickets, path);
+        } catch (IOException e) {
+            log.error("Cannot write ticket snapshot {}", path);
+            throw new RuntimeException(e);
+        }
+    }
+
+    public TicketTable readTicketSnapshot(Path path) {
+        try {
+            return TicketSnapshot.open(path);
+        } catch (IOException e) {
+            log.error("Cannot read ticket snapshot {}", path);
+            throw new RuntimeException(e);
+        }
+    }
+
+    public Map<String, Duration> getMinimalTimeForEachCarrier(
+            TicketTable tickets, String origin, String destination) {
+        return TicketMetrics.time("getMinimalTimeForEachCarrier.table", () -> {
+            int originId = tickets.airportId(origin);
+            int destinationId = tickets.airportId(destination);
+            if (originId < 0 || destinationId < 0) {
+                return new HashMap<>();
+            }
+
+            int[] minMinutes = newMinMinutes(tickets);
+            ZoneOffsetTable[] zones = null;
+            for (int row = 0; row < tickets.size(); row++) {
+                if (tickets.originId(row) != originId || tickets.destinationId(row) != destinationId) continue;
+                if (zones == null) {
+                    zones = routeZones(origin, destination);
+                }
+                updateMinMinutes(tickets, row, minMinutes, zones);
+            }
+
+            return toMinFlightTimes(tickets, minMinutes);
+        });
+    }
+
+    public Map<String, Duration> getMinimalTimeForEachCarrier(
+            TicketTable tickets, RouteIndex routeIndex, String origin, String destination) {
+        if (!TicketMetrics.isEnabled()) {
+            return indexedMinimalTimes(tickets, routeIndex, origin, destination);
+        }
+        return TicketMetrics.time("getMinimalTimeForEachCarrier.tableIndex",
+                () -> indexedMinimalTimes(tickets, routeIndex, origin, destination));
+    }
+
+    private Map<String, Duration> indexedMinimalTimes(
+            TicketTable tickets, RouteIndex routeIndex, String origin, String destination) {
+        checkIndex(tickets.size(), routeIndex);
+        int[] rows = routeIndex.rows(origin, destination);
+        if (rows.length == 0) {
+            return new HashMap<>();
+        }
+
+        int[] minMinutes = newMinMinutes(tickets);
+        ZoneOffsetTable[] zones = routeZones(origin, destination);
+        for (int row : rows) {
+            updateMinMinutes(tickets, row, minMinutes, zones);
+        }
+
+        return toMinFlightTimes(tickets, minMinutes);
+    }
+
+    /**
+     * Same as {@link #getMinimalTimeForEachCarrier(TicketTable, String, String)} for the tickets departing in the
+     * window {@code [from, to)} of local departure minutes.
+     */
+    public Map<String, Duration> getMinimalTimeForEachCarrier(
+            TicketTable tickets, DepartureIndex departureIndex, String origin, String destination, int from, int to) {
+        if (!TicketMetrics.isEnabled()) {
+            return windowMinimalTimes(tickets, departureIndex, origin, destination, from, to);
+        }
+        return TicketMetrics.time("getMinimalTimeForEachCarrier.tableWindow",
+                () -> windowMinimalTimes(tickets, departureIndex, origin, destination, from, to));
+    }
+
+    private Map<String, Duration> windowMinimalTimes(
+            TicketTable tickets, DepartureIndex departureIndex, String origin, String destination, int from, int to) {
+        checkIndex(tickets.size(), departureIndex);
+        int[] rows = departureIndex.rows(origin, destination, from, to);
+        if (rows.length == 0) {
+            return new HashMap<>();
+        }
+
+        int[] minMinutes = newMinMinutes(tickets);
+        ZoneOffsetTable[] zones = routeZones(origin, destination);
+        for (int row : rows) {
+            updateMinMinutes(tickets, row, minMinutes, zones);
+        }
+
+        return toMinFlightTimes(tickets, minMinutes);
+    }
+
+    static int[] newMinMinutes(TicketTable tickets) {
+        int[] minMinutes = new int[tickets.carrierCount()];
+        Arrays.fill(minMinutes, Integer.MAX_VALUE);
+        return minMinutes;
+    }
+
+    /**
+     * @return The offset tables of the route's origin and destination, for {@link #flightMinutes}.
+     */
+    static ZoneOffsetTable[] routeZones(String origin, String destination) {
+        return new ZoneOffsetTable[]{TimeUtils.getOffsetTable(origin), TimeUtils.getOffsetTable(destination)};
+    }
+
+    /**
+     * @param zones The offset tables of the route, see {@link #routeZones(String, String)}.
+     */
+    static int flightMinutes(TicketTable tickets, int row, ZoneOffsetTable[] zones) {
+        return (int) TimeUtils.getFlightMinutes(zones[0], tickets.departure(row), zones[1], tickets.arrival(row));
+    }
+
+    static void updateMinMinutes(TicketTable tickets, int row, int[] minMinutes, ZoneOffsetTable[] zones) {
+        int minutes = flightMinutes(tickets, row, zones);
+        int carrierId = tickets.carrierId(row);
+        if (minutes < minMinutes[carrierId]) {
+            minMinutes[carrierId] = minutes;
+        }
+    }
+
+    static Map<String, Duration> toMinFlightTimes(TicketTable tickets, int[] minMinutes) {
+        Map<String, Duration> minFlightTimes = new HashMap<>();
+        for (int carrierId = 0; carrierId < minMinutes.length; carrierId++) {
+            if (minMinutes[carrierId] == Integer.MAX_VALUE) continue;
+            minFlightTimes.put(tickets.carrierCode(carrierId), Duration.ofMinutes(minMinutes[carrierId]));
+        }
+        return minFlightTimes;
+    }
+
+    public TicketTable getTicketsWithOriginAndDestination(TicketTable tickets, String origin, String destination) {
+        int originId = tickets.airportId(origin);
+        int destinationId = tickets.airportId(destination);
+        int[] rows = new int[16];
+        int count = 0;
+        if (originId >= 0 && destinationId >= 0) {
+            for (int row = 0; row < tickets.size(); row++) {
+                if (tickets.originId(row) != originId || tickets.destinationId(row) != destinationId) continue;
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, count * 2);
+                }
+                rows[count++] = row;
+            }
+        }
+        return tickets.select(rows, 0, count);
+    }
+
+    public TicketTable getTicketsWithOriginAndDestination(
+            TicketTable tickets, RouteIndex routeIndex, String origin, String destination) {
+        checkIndex(tickets.size(), routeIndex);
+        return tickets.select(routeIndex.rows(origin, destination));
+    }
+
+    /**
+     * @return The tickets of the route departing in the window {@code [from, to)}, in departure order.
+     */
+    public TicketTable getTicketsWithOriginAndDestination(
+            TicketTable tickets, DepartureIndex departureIndex, String origin, String destination, int from, int to) {
+        checkIndex(tickets.size(), departureIndex);
+        return tickets.select(departureIndex.rows(origin, destination, from, to));
+    }
+
+    public BigDecimal getAveragePrice(TicketTable tickets) {
+        return TicketMetrics.time("getAveragePrice.table", () -> {
+            if (tickets.isEmpty()) {
+                throw new IllegalArgumentException("Tickets list is empty");
+            }
+
+            long sum = 0;
+            for (int row = 0; row < tickets.size(); row++) {
+                sum = Math.addExact(sum, tickets.price(row));
+            }
+
+            return PriceUtils.divide(sum, tickets.size(), tickets.priceScale(), RoundingMode.HALF_UP);
+        });
+    }
+
+    public BigDecimal getMedianaPrice(TicketTable tickets) {
+        return TicketMetrics.time("getMedianaPrice.table", () -> {
+            if (tickets.isEmpty()) {
+                throw new IllegalArgumentException("Tickets list is empty");
+            }
+
+            return median(tickets.prices(), tickets.priceScale());
+        });
+    }
+
+    /**
+     * Table counterpart of {@link #getPercentilePrice(List, double)}.
+     */
+    public BigDecimal getPercentilePrice(TicketTable tickets, double percentile) {
+        return TicketMetrics.time("getPercentilePrice.table", () -> {
+            if (tickets.isEmpty()) {
+                throw new IllegalArgumentException("Tickets list is empty");
+            }
+
+            long[] prices = tickets.prices();
+            long price = SelectionUtils.select(prices, percentileIndex(percentile, prices.length));
+            return PriceUtils.toBigDecimal(price, tickets.priceScale());
+        });
+    }
+
+    /**
+     * Computes count, price statistics and per-carrier minimal flight time of a route in one pass.
+     *
+     * @throws IllegalArgumentException if a price of the route has more than {@link PriceUtils#SCALE} fraction
+     *                                  digits; {@link #getAveragePrice(List)} and {@link #getMedianaPrice(List)}
+     *                                  still answer for such prices.
+     */
+    public RouteStats getRouteStats(List<Ticket> tickets, String origin, String destination) {
+        return TicketMetrics.time("getRouteStats.list", () -> {
+            RouteStats stats = new RouteStats(new Route(origin, destination));
+            for (Ticket ticket : tickets) {
+                if (!ticket.origin().equals(origin) || !ticket.destination().equals(destination)) continue;
+                addToStats(stats, ticket, getFlightDuration(ticket));
+            }
+            return stats;
+        });
+    }
+
+    /**
+     * Same as {@link #getRouteStats(List, String, String)} over a ticket stream, which is consumed but not
+     * closed. Prices go to a {@link QuantileSketch}, so memory stays bounded whatever the stream size;
+     * the median is approximate beyond the sketch capacity.
+     */
+    public RouteStats getRouteStats(Stream<Ticket> tickets, String origin, String destination) {
+        return TicketMetrics.time("getRouteStats.stream", () -> {
+            RouteStats stats = new RouteStats(new Route(origin, destination), QuantileSketch.DEFAULT_K);
+            tickets.forEach(ticket -> {
+                if (!ticket.origin().equals(origin) || !ticket.destination().equals(destination)) return;
+                addToStats(stats, ticket, getFlightDuration(ticket));
+            });
+            return stats;
+        });
+    }
+
+    public RouteStats getRouteStats(TicketTable tickets, String origin, String destination) {
+        return TicketMetrics.time("getRouteStats.table", () -> {
+            RouteStats stats = new RouteStats(new Route(origin, destination));
+            int originId = tickets.airportId(origin);
+            int destinationId = tickets.airportId(destination);
+            if (originId < 0 || destinationId < 0) {
+                return stats;
+            }
+
+            ZoneOffsetTable[] zones = null;
+            for (int row = 0; row < tickets.size(); row++) {
+                if (tickets.originId(row) != originId || tickets.destinationId(row) != destinationId) continue;
+                if (zones == null) {
+                    zones = routeZones(origin, destination);
+                }
+                stats.add(tickets.carrierCode(tickets.carrierId(row)), flightMinutes(tickets, row, zones),
+                        tickets.price(row), tickets.priceScale());
+            }
+            return stats;
+        });
+    }
+
+    public RouteStats getRouteStats(TicketTable tickets, RouteIndex routeIndex, String origin, String destination) {
+        if (!TicketMetrics.isEnabled()) {
+            return indexedRouteStats(tickets, routeIndex, origin, destination);
+        }
+        return TicketMetrics.time("getRouteStats.tableIndex",
+                () -> indexedRouteStats(tickets, routeIndex, origin, destination));
+    }
+
+    private RouteStats indexedRouteStats(
+            TicketTable tickets, RouteIndex routeIndex, String origin, String destination) {
+        checkIndex(tickets.size(), routeIndex);
+        RouteStats stats = new RouteStats(new Route(origin, destination));
+        int[] rows = routeIndex.rows(origin, destination);
+        if (rows.length == 0) {
+            return stats;
+        }
+
+        ZoneOffsetTable[] zones = routeZones(origin, destination);
+        for (int row : rows) {
+            stats.add(tickets.carrierCode(tickets.carrierId(row)), flightMinutes(tickets, row, zones),
+                    tickets.price(row), tickets.priceScale());
+        }
+        return stats;
+    }
+
+    /**
+     * Computes the statistics of the route's tickets departing in the window {@code [from, to)} of local
+     * departure minutes.
+     */
+    public RouteStats getRouteStats(
+            TicketTable tickets, DepartureIndex departureIndex, String origin, String destination, int from, int to) {
+        if (!TicketMetrics.isEnabled()) {
+            return windowRouteStats(tickets, departureIndex, origin, destination, from, to);
+        }
+        return TicketMetrics.time("getRouteStats.tableWindow",
+                () -> windowRouteStats(tickets, departureIndex, origin, destination, from, to));
+    }
+
+    private RouteStats windowRouteStats(
+            TicketTable tickets, DepartureIndex departureIndex, String origin, String destination, int from, int to) {
+        checkIndex(tickets.size(), departureIndex);
+        RouteStats stats = new RouteStats(new Route(origin, destination));
+        int[] rows = departureIndex.rows(origin, destination, from, to);
+        if (rows.length == 0) {
+            return stats;
+        }
+
+        ZoneOffsetTable[] zones = routeZones(origin, destination);
+        for (int row : rows) {
+            stats.add(tickets.carrierCode(tickets.carrierId(row)), flightMinutes(tickets, row, zones),
+                    tickets.price(row), tickets.priceScale());
+        }
+        return stats;
+    }
+
+    /**
+     * Computes the statistics of several routes in a single pass over the tickets.
+     *
+     * @return The statistics of every requested route, empty for routes without tickets.
+     */
+    public Map<Route, RouteStats> getRouteStats(List<Ticket> tickets, Collection<Route> routes) {
+        return TicketMetrics.time("getRouteStats.listRoutes", () -> routeStats(tickets, routes, 0, tickets.size()));
+    }
+
+    /**
+     * Computes the statistics of every route of the tickets in a single pass.
+     */
+    public Map<Route, RouteStats> getAllRouteStats(List<Ticket> tickets) {
+        return TicketMetrics.time("getAllRouteStats.list", () -> routeStats(tickets, null, 0, tickets.size()));
+    }
+
+    public Map<Route, RouteStats> getRouteStats(TicketTable tickets, Collection<Route> routes) {
+        return TicketMetrics.time("getRouteStats.tableRoutes", () -> routeStats(tickets, routes, 0, tickets.size()));
+    }
+
+    public Map<Route, RouteStats> getAllRouteStats(TicketTable tickets) {
+        return TicketMetrics.time("getAllRouteStats.table", () -> routeStats(tickets, null, 0, tickets.size()));
+    }
+
+    /**
+     * Computes the statistics of the routes of the tickets in {@code [from, to)}. Statistics of disjoint
+     * ranges combine with {@link RouteStats#merge(RouteStats)}.
+     *
+     * @param routes The requested routes, or {@code null} for all routes.
+     */
+    Map<Route, RouteStats> routeStats(List<Ticket> tickets, Collection<Route> routes, int from, int to) {
+        // Nested maps find the stats of a ticket without creating a Route for it
+        Map<String, Map<String, RouteStats>> routeStats = new HashMap<>();
+        Map<Route, RouteStats> result = new HashMap<>();
+        if (routes != null) {
+            for (Route route : routes) {
+                RouteStats stats = new RouteStats(route);
+                routeStats.computeIfAbsent(route.origin(), k -> new HashMap<>()).put(route.destination(), stats);
+                result.put(route, stats);
+            }
+        }
+
+        for (Ticket ticket : tickets.subList(from, to)) {
+            Map<String, RouteStats> destinationStats = routeStats.get(ticket.origin());
+            RouteStats stats = destinationStats != null ? destinationStats.get(ticket.destination()) : null;
+            if (stats == null) {
+                if (routes != null) continue;
+                stats = new RouteStats(new Route(ticket.origin(), ticket.destination()));
+                routeStats.computeIfAbsent(ticket.origin(), k -> new HashMap<>()).put(ticket.destination(), stats);
+                result.put(stats.getRoute(), stats);
+            }
+            addToStats(stats, ticket, getFlightDuration(ticket));
+        }
+        return result;
+    }
+
+    /**
+     * Table counterpart of {@link #routeStats(List, Collection, int, int)}.
+     */
+    static Map<Route, RouteStats> routeStats(TicketTable tickets, Collection<Route> routes, int from, int to) {
+        // Routes are keyed by originId << 16 | destinationId, airport ids are shorts
+        Map<Integer, TableRoute> routeStats = new HashMap<>();
+        Map<Route, RouteStats> result = new HashMap<>();
+        if (routes != null) {
+            for (Route route : routes) {
+                RouteStats stats = new RouteStats(route);
+                result.put(route, stats);
+                int originId = tickets.airportId(route.origin());
+                int destinationId = tickets.airportId(route.destination());
+                if (originId >= 0 && destinationId >= 0) {
+                    routeStats.put(originId << 16 | destinationId, new TableRoute(stats,
+                            routeZones(route.origin(), route.destination())));
+                }
+            }
+        }
+
+        int lastKey = -1;
+        TableRoute route = null;
+        for (int row = from; row < to; row++) {
+            int key = tickets.originId(row) << 16 | tickets.destinationId(row);
+            if (key != lastKey) {
+                // Rows of one route often come in runs, the lookup is skipped within a run
+                lastKey = key;
+                route = routeStats.get(key);
+                if (route == null && routes == null) {
+                    String origin = tickets.airportCode(tickets.originId(row));
+                    String destination = tickets.airportCode(tickets.destinationId(row));
+                    route = new TableRoute(new RouteStats(new Route(origin, destination)), routeZones(origin, destination));
+                    routeStats.put(key, route);
+                    result.put(route.stats().getRoute(), route.stats());
+                }
+            }
+            if (route == null) continue;
+            route.stats().add(tickets.carrierCode(tickets.carrierId(row)), flightMinutes(tickets, row, route.zones()),
+                    tickets.price(row), tickets.priceScale());
+        }
+        return result;
+    }
+
+    private static void addToStats(RouteStats stats, Ticket ticket, Duration flightDuration) {
+        long price;
+        try {
+            price = PriceUtils.toMinorUnits(ticket.price());
+        } catch (ArithmeticException e) {
+            // Route statistics keep minor units, there is no exact fallback like the list-based price methods
+            throw new IllegalArgumentException("Route statistics need prices with at most " + PriceUtils.SCALE
+                    + " fraction digits: " + ticket.price(), e);
+        }
+        stats.add(ticket.carrier(), flightDuration.toMinutes(), price, PriceUtils.scaleOf(ticket.price()));
+    }
+
+    private record TableRoute(RouteStats stats, ZoneOffsetTable[] zones) {
     }
 }
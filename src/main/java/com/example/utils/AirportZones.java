@@ -0,0 +1,88 @@
+package com.example.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of airport time zones, loaded once from the bundled {@code airport/airports.csv} resource.
+ * The resource maps IATA codes to IANA zone ids; {@link ZoneOffsetTable}s are compiled lazily, once per zone,
+ * and shared by all airports of that zone.
+ */
+public class AirportZones {
+
+    public static final String RESOURCE_PATH = "airport/airports.csv";
+
+    private static final Map<String, ZoneId> airportToZoneMap = load(RESOURCE_PATH);
+    private static final Map<ZoneId, ZoneOffsetTable> offsetTables = new ConcurrentHashMap<>();
+
+    /**
+     * @param airportCode The IATA code, in any case.
+     * @return The time zone of the airport, or {@code null} if the airport is unknown.
+     */
+    public static ZoneId getZone(String airportCode) {
+        ZoneId zone = airportToZoneMap.get(airportCode);
+        return zone != null ? zone : airportToZoneMap.get(airportCode.toUpperCase());
+    }
+
+    /**
+     * @param airportCode The IATA code, in any case.
+     * @return The offset table of the airport's time zone, or {@code null} if the airport is unknown.
+     */
+    public static ZoneOffsetTable getOffsetTable(String airportCode) {
+        ZoneId zone = getZone(airportCode);
+        return zone != null ? offsetTables.computeIfAbsent(zone, ZoneOffsetTable::of) : null;
+    }
+
+    public static Set<String> airportCodes() {
+        return Collections.unmodifiableSet(airportToZoneMap.keySet());
+    }
+
+    private static Map<String, ZoneId> load(String resourcePath) {
+        InputStream inputStream = AirportZones.class.getClassLoader().getResourceAsStream(resourcePath);
+        if (inputStream == null) {
+            throw new IllegalStateException("Resource not found: " + resourcePath);
+        }
+
+        Map<String, ZoneId> zones = new HashMap<>();
+        Map<String, ZoneId> zoneIds = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            boolean header = true;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                if (header) {
+                    header = false;
+                    continue;
+                }
+
+                int comma = line.indexOf(',');
+                if (comma <= 0 || comma == line.length() - 1) {
+                    throw new IllegalStateException("Malformed line " + lineNumber + " in " + resourcePath);
+                }
+                String code = line.substring(0, comma).toUpperCase();
+                try {
+                    zones.put(code, zoneIds.computeIfAbsent(line.substring(comma + 1), ZoneId::of));
+                } catch (DateTimeException e) {
+                    throw new IllegalStateException("Unknown time zone on line " + lineNumber + " in " + resourcePath, e);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return zones;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.utils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Growable binary min-heap of primitive {@code long} values.
+ */
+public class LongHeap {
+
+    private long[] values;
+    private int size;
+
+    public LongHeap() {
+        this(8);
+    }
+
+    public LongHeap(int capacity) {
+        values = new long[Math.max(capacity, 1)];
+    }
+
+    public void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (values[parent] <= value) break;
+            values[index] = values[parent];
+            index = parent;
+        }
+        values[index] = value;
+    }
+
+    /**
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    public long peek() {
+        if (size == 0) throw new NoSuchElementException();
+        return values[0];
+    }
+
+    /**
+     * Removes and returns the smallest value.
+     *
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    public long poll() {
+        long min = peek();
+        long last = values[--size];
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && values[child + 1] < values[child]) {
+                child++;
+            }
+            if (last <= values[child]) break;
+            values[index] = values[child];
+            index = child;
+        }
+        values[index] = last;
+        return min;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
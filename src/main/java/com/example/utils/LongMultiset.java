@@ -0,0 +1,92 @@
+package com.example.utils;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Sorted multiset of primitive {@code long} values. Adding, removing and reading the smallest or largest
+ * value take logarithmic time in the number of distinct values.
+ */
+public class LongMultiset {
+
+    // Counts are updated in place so that repeated values do not re-box
+    private final TreeMap<Long, int[]> counts = new TreeMap<>();
+    private long size;
+
+    public void add(long value) {
+        int[] count = counts.get(value);
+        if (count == null) {
+            counts.put(value, new int[]{1});
+        } else {
+            count[0]++;
+        }
+        size++;
+    }
+
+    /**
+     * Removes one occurrence of the value.
+     *
+     * @return {@code false} if the value was not present.
+     */
+    public boolean remove(long value) {
+        int[] count = counts.get(value);
+        if (count == null) {
+            return false;
+        }
+        if (--count[0] == 0) {
+            counts.remove(value);
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * @throws NoSuchElementException if the multiset is empty.
+     */
+    public long first() {
+        return counts.firstKey();
+    }
+
+    /**
+     * @throws NoSuchElementException if the multiset is empty.
+     */
+    public long last() {
+        return counts.lastKey();
+    }
+
+    /**
+     * Removes one occurrence of the smallest value.
+     *
+     * @throws NoSuchElementException if the multiset is empty.
+     */
+    public long removeFirst() {
+        return removeEntry(counts.firstEntry());
+    }
+
+    /**
+     * Removes one occurrence of the largest value.
+     *
+     * @throws NoSuchElementException if the multiset is empty.
+     */
+    public long removeLast() {
+        return removeEntry(counts.lastEntry());
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private long removeEntry(Map.Entry<Long, int[]> entry) {
+        if (entry == null) {
+            throw new NoSuchElementException();
+        }
+        long value = entry.getKey();
+        remove(value);
+        return value;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point price arithmetic. Prices are held as {@code long} minor units, i.e. hundredths of
+ * the currency unit, and converted to {@link BigDecimal} only when a result is returned.
+ */
+public class PriceUtils {
+
+    public static final int SCALE = 2;
+
+    // Longer inputs could overflow once scaled and go through BigDecimal instead
+    private static final int MAX_FAST_LENGTH = 16;
+
+    /**
+     * Converts a decimal price string to minor units.
+     *
+     * @throws NumberFormatException if the value is not a number.
+     * @throws ArithmeticException   if the value has more than {@link #SCALE} fractional digits or does not fit.
+     */
+    public static long toMinorUnits(String price) {
+        int length = price == null ? 0 : price.length();
+        if (length == 0 || length > MAX_FAST_LENGTH) {
+            return slowToMinorUnits(price);
+        }
+        long units = 0;
+        int fractionDigits = -1;
+        for (int i = 0; i < length; i++) {
+            char c = price.charAt(i);
+            if (c >= '0' && c <= '9') {
+                units = units * 10 + (c - '0');
+                if (fractionDigits >= 0 && ++fractionDigits > SCALE) {
+                    return slowToMinorUnits(price);
+                }
+            } else if (c == '.' && fractionDigits < 0 && i > 0) {
+                fractionDigits = 0;
+            } else {
+                return slowToMinorUnits(price);
+            }
+        }
+        int scale = Math.max(fractionDigits, 0);
+        for (int i = scale; i < SCALE; i++) {
+            units *= 10;
+        }
+        return units;
+    }
+
+    /**
+     * @return The number of fractional digits of a price string, as {@link BigDecimal#scale()} would
+     * report it, but never negative.
+     */
+    public static int scaleOf(String price) {
+        if (price.indexOf('e') >= 0 || price.indexOf('E') >= 0) {
+            return Math.max(new BigDecimal(price).scale(), 0);
+        }
+        int dot = price.indexOf('.');
+        return dot < 0 ? 0 : price.length() - dot - 1;
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits, int scale) {
+        return BigDecimal.valueOf(minorUnits, SCALE).setScale(scale, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * Divides a sum of minor units and rounds the quotient to the given scale.
+     */
+    public static BigDecimal divide(long minorUnits, long divisor, int scale, RoundingMode roundingMode) {
+        return BigDecimal.valueOf(minorUnits, SCALE).divide(BigDecimal.valueOf(divisor), scale, roundingMode);
+    }
+
+    /**
+     * Packs a price and the scale it was written with into one value that orders by price and then by scale,
+     * so that prices can be selected and sorted as primitives without losing their scale.
+     *
+     * @param minorUnits The price in minor units.
+     * @param scale      The number of fractional digits of the source price, at most {@link #SCALE}.
+     */
+    public static long toPriceKey(long minorUnits, int scale) {
+        if (scale < 0 || scale > SCALE) {
+            throw new IllegalArgumentException("Price scale must be within [0, " + SCALE + "]: " + scale);
+        }
+        return Math.multiplyExact(minorUnits, 4) + scale;
+    }
+
+    /**
+     * @return The minor units of a key made by {@link #toPriceKey(long, int)}.
+     */
+    public static long keyMinorUnits(long priceKey) {
+        return priceKey >> 2;
+    }
+
+    /**
+     * @return The scale of a key made by {@link #toPriceKey(long, int)}.
+     */
+    public static int keyScale(long priceKey) {
+        return (int) (priceKey & 3);
+    }
+
+    /**
+     * @return The price of a key at its own scale.
+     */
+    public static BigDecimal keyToBigDecimal(long priceKey) {
+        return toBigDecimal(keyMinorUnits(priceKey), keyScale(priceKey));
+    }
+
+    /**
+     * @return The mean of two keyed prices rounded {@link RoundingMode#CEILING} at the larger of their scales,
+     * the way the sort-based median averages its two middle prices.
+     */
+    public static BigDecimal keyMidpoint(long lowerKey, long upperKey) {
+        return divide(Math.addExact(keyMinorUnits(lowerKey), keyMinorUnits(upperKey)), 2,
+                Math.max(keyScale(lowerKey), keyScale(upperKey)), RoundingMode.CEILING);
+    }
+
+    private static long slowToMinorUnits(String price) {
+        if (price == null) {
+            throw new NumberFormatException("Price is null");
+        }
+        return new BigDecimal(price).movePointRight(SCALE).longValueExact();
+    }
+}
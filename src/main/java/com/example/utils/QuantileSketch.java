@@ -0,0 +1,221 @@
+package com.example.utils;
+
+import java.util.Arrays;
+
+/**
+ * Streaming quantile sketch for {@code long} values in the style of KLL (Karnin, Lang, Liberty).
+ * <p>
+ * Values are kept in a stack of compactors. Every item on level {@code h} stands for {@code 2^h}
+ * input values; a full level is sorted and every second item is promoted to the next level. Lower levels
+ * get geometrically smaller capacities, so the sketch holds {@code O(k)} items whatever the input size,
+ * and the normalized rank error of {@link #quantile(double)} is about {@code 1.7 / k}.
+ * As long as nothing was compacted the sketch holds every value and answers are exact.
+ * <p>
+ * Sketches can be merged, so partial results from chunks or threads combine into one.
+ * Compaction uses an alternating offset per level instead of a random coin, which keeps results
+ * reproducible for the same input. The class is not thread-safe.
+ */
+public class QuantileSketch {
+
+    public static final int DEFAULT_K = 200;
+
+    private static final int MIN_CAPACITY = 8;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+    private final int k;
+    private long[][] levels = new long[1][];
+    private int[] sizes = new int[1];
+    private boolean[] offsets = new boolean[1];
+    private int[] capacities;
+    private long count;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * @param k The accuracy parameter, i.e. the capacity of the top level.
+     */
+    public QuantileSketch(int k) {
+        if (k < MIN_CAPACITY) {
+            throw new IllegalArgumentException("k must be at least " + MIN_CAPACITY);
+        }
+        this.k = k;
+        levels[0] = new long[k];
+        capacities = new int[]{k};
+    }
+
+    public void add(long value) {
+        append(0, value);
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (sizes[0] >= capacities[0]) {
+            compress();
+        }
+    }
+
+    /**
+     * Folds another sketch into this one. The other sketch is left unchanged.
+     */
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        for (int level = 0; level < other.sizes.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        compress();
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return {@code true} if no value has been compacted away, so quantiles are exact.
+     */
+    public boolean isExact() {
+        return sizes[0] == count;
+    }
+
+    public long min() {
+        checkNotEmpty();
+        return min;
+    }
+
+    public long max() {
+        checkNotEmpty();
+        return max;
+    }
+
+    /**
+     * Returns the value of nearest rank {@code ceil(q * n)}, i.e. the smallest retained value whose
+     * estimated rank covers the requested fraction of the input.
+     *
+     * @param q The quantile in {@code [0, 1]}; {@code 0} and {@code 1} return the exact minimum and maximum.
+     * @throws IllegalStateException if the sketch is empty.
+     */
+    public long quantile(double q) {
+        if (!(q >= 0 && q <= 1)) {
+            throw new IllegalArgumentException("Quantile must be within [0, 1]: " + q);
+        }
+        checkNotEmpty();
+        if (q == 0) {
+            return min;
+        }
+        if (q == 1) {
+            return max;
+        }
+
+        return valueAtRank(Math.max(1, (long) Math.ceil(q * count)));
+    }
+
+    /**
+     * Returns the estimated value of the given rank in sorted order.
+     *
+     * @param rank The one-based rank in {@code [1, count]}.
+     * @throws IllegalStateException if the sketch is empty.
+     */
+    public long valueAtRank(long rank) {
+        checkNotEmpty();
+        if (rank < 1 || rank > count) {
+            throw new IllegalArgumentException("Rank " + rank + " is outside [1, " + count + "]");
+        }
+
+        // Walk the sorted levels in merged value order, each item weighing 2^level
+        long[][] sorted = new long[sizes.length][];
+        int[] positions = new int[sizes.length];
+        for (int level = 0; level < sizes.length; level++) {
+            sorted[level] = Arrays.copyOf(levels[level], sizes[level]);
+            Arrays.sort(sorted[level]);
+        }
+
+        long cumulative = 0;
+        while (true) {
+            int next = -1;
+            for (int level = 0; level < sorted.length; level++) {
+                if (positions[level] < sorted[level].length
+                        && (next < 0 || sorted[level][positions[level]] < sorted[next][positions[next]])) {
+                    next = level;
+                }
+            }
+            if (next < 0) {
+                return max;
+            }
+            long value = sorted[next][positions[next]++];
+            cumulative += 1L << next;
+            if (cumulative >= rank) {
+                return value;
+            }
+        }
+    }
+
+    private void append(int level, long value) {
+        if (level >= sizes.length) {
+            addLevel();
+        }
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], levels[level].length * 2);
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    private void addLevel() {
+        int height = sizes.length + 1;
+        levels = Arrays.copyOf(levels, height);
+        levels[height - 1] = new long[MIN_CAPACITY];
+        sizes = Arrays.copyOf(sizes, height);
+        offsets = Arrays.copyOf(offsets, height);
+        capacities = new int[height];
+        for (int level = 0; level < height; level++) {
+            int depth = height - 1 - level;
+            capacities[level] = Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+        }
+    }
+
+    private void compress() {
+        for (int level = 0; level < sizes.length; level++) {
+            if (sizes[level] >= capacities[level]) {
+                compact(level);
+            }
+        }
+    }
+
+    private void compact(int level) {
+        long[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+
+        // An odd item stays behind so that total weight is preserved exactly
+        int kept = size % 2;
+        int offset = offsets[level] ? 1 : 0;
+        offsets[level] = !offsets[level];
+        long leftover = items[size - 1];
+        for (int i = offset; i < size - kept; i += 2) {
+            append(level + 1, items[i]);
+        }
+        items = levels[level];
+        sizes[level] = 0;
+        if (kept == 1) {
+            items[sizes[level]++] = leftover;
+        }
+    }
+
+    private void checkNotEmpty() {
+        if (count == 0) {
+            throw new IllegalStateException("Sketch is empty");
+        }
+    }
+}
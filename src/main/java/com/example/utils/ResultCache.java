@@ -0,0 +1,147 @@
+package com.example.utils;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of computed results with least-recently-used eviction and an optional time to live.
+ * <p>
+ * Lookups and insertions hold the cache lock only for a hash map operation; values are computed outside it,
+ * so a slow computation never blocks other keys, and concurrent misses of one key may compute it twice.
+ * Hit, miss and eviction counts are kept in {@link LongAdder}s. The cache is thread-safe.
+ *
+ * @param <K> The key type, with value-based {@code equals} and {@code hashCode}.
+ * @param <V> The value type, which should be immutable since values are shared between callers.
+ */
+public class ResultCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    /**
+     * @param maxSize The maximum number of entries.
+     * @param ttl     How long an entry stays valid after it is computed, or {@code null} for no expiry.
+     */
+    public ResultCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    /**
+     * @param clock The source of {@link System#nanoTime()}-like timestamps.
+     */
+    public ResultCache(int maxSize, Duration ttl, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        if (ttl != null && (ttl.isNegative() || ttl.isZero())) {
+            throw new IllegalArgumentException("Time to live must be positive: " + ttl);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl != null ? ttl.toNanos() : Long.MAX_VALUE;
+        this.clock = clock;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    private ResultCache(ResultCache<K, V> other) {
+        this.maxSize = other.maxSize;
+        this.ttlNanos = other.ttlNanos;
+        this.clock = other.clock;
+        this.hits = other.hits;
+        this.misses = other.misses;
+        this.evictions = other.evictions;
+    }
+
+    /**
+     * @return An empty cache with the same bounds and clock, counting into the statistics of this one.
+     */
+    public ResultCache<K, V> emptyCopy() {
+        return new ResultCache<>(this);
+    }
+
+    /**
+     * Returns the cached value of the key, computing and caching it on a miss. Exceptions of the computation
+     * are passed on and nothing is cached.
+     */
+    public V get(K key, Function<? super K, ? extends V> compute) {
+        long now = clock.getAsLong();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (now - entry.created < ttlNanos) {
+                    hits.increment();
+                    return entry.value;
+                }
+                entries.remove(key);
+            }
+        }
+        misses.increment();
+
+        V value = compute.apply(key);
+        long created = clock.getAsLong();
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, created));
+            Iterator<Entry<V>> eldest = entries.values().iterator();
+            while (entries.size() > maxSize) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Removes every entry; the statistics are kept.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private record Entry<V>(V value, long created) {
+    }
+
+    /**
+     * Counts since the cache was created.
+     *
+     * @param hits      The lookups answered from the cache.
+     * @param misses    The lookups that computed their value.
+     * @param evictions The entries dropped to respect the size bound.
+     */
+    public record Stats(
+            long hits,
+            long misses,
+            long evictions
+    ) {
+
+        /**
+         * @return The fraction of lookups answered from the cache, or 0 before the first lookup.
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+}
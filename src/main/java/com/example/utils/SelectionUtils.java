@@ -0,0 +1,99 @@
+package com.example.utils;
+
+import java.util.Arrays;
+
+/**
+ * Order statistics over primitive arrays in linear expected time.
+ */
+public class SelectionUtils {
+
+    // Ranges this small are cheaper to sort than to partition further
+    private static final int SORT_THRESHOLD = 16;
+
+    /**
+     * Returns the {@code k}-th smallest value (zero-based) of the array. The array is reordered so that
+     * every value before position {@code k} is not greater, and every value after it is not smaller.
+     * <p>
+     * This is an introselect: quickselect with median-of-three pivots that falls back to sorting the
+     * remaining range once the partitioning depth exceeds {@code 2 log2(n)}, which bounds the worst case
+     * to O(n log n).
+     *
+     * @throws IllegalArgumentException if {@code k} is outside the array.
+     */
+    public static long select(long[] values, int k) {
+        return select(values, 0, values.length, k);
+    }
+
+    /**
+     * Same as {@link #select(long[], int)}, restricted to {@code values[from, to)}; {@code k} is an
+     * absolute index within that range.
+     */
+    public static long select(long[] values, int from, int to, int k) {
+        if (k < from || k >= to) {
+            throw new IllegalArgumentException("Index " + k + " is outside [" + from + ", " + to + ")");
+        }
+        int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        int left = from;
+        int right = to - 1;
+        while (right - left >= SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                Arrays.sort(values, left, right + 1);
+                return values[k];
+            }
+            long pivot = medianOfThree(values, left, left + ((right - left) >>> 1), right);
+
+            // Three-way partition: [left, lt) < pivot, [lt, gt] == pivot, (gt, right] > pivot
+            int lt = left;
+            int gt = right;
+            int i = left;
+            while (i <= gt) {
+                long value = values[i];
+                if (value < pivot) {
+                    swap(values, lt++, i++);
+                } else if (value > pivot) {
+                    swap(values, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (k < lt) {
+                right = lt - 1;
+            } else if (k > gt) {
+                left = gt + 1;
+            } else {
+                return pivot;
+            }
+        }
+        Arrays.sort(values, left, right + 1);
+        return values[k];
+    }
+
+    /**
+     * @return The largest value of {@code values[from, to)}.
+     */
+    public static long max(long[] values, int from, int to) {
+        long max = values[from];
+        for (int i = from + 1; i < to; i++) {
+            if (values[i] > max) {
+                max = values[i];
+            }
+        }
+        return max;
+    }
+
+    private static long medianOfThree(long[] values, int a, int b, int c) {
+        long x = values[a];
+        long y = values[b];
+        long z = values[c];
+        if (x < y) {
+            return y < z ? y : Math.max(x, z);
+        }
+        return x < z ? x : Math.max(y, z);
+    }
+
+    private static void swap(long[] values, int i, int j) {
+        long tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+}
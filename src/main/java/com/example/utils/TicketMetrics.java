@@ -0,0 +1,202 @@
+package com.example.utils;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide counters and latency histograms of ticket parsing and analytics.
+ * <p>
+ * Metrics are disabled unless the {@code ticket.metrics.enabled} system property is {@code true} or
+ * {@link #setEnabled(boolean)} turns them on. Instrumented code wraps an operation in
+ * {@link #time(String, Supplier)}, or brackets it with {@link #startTimer()} and one of the {@code record}
+ * methods; a timer started while metrics were disabled records nothing. While disabled, a bracketed operation
+ * pays one volatile read, while {@link #time(String, Supplier)} also pays for its supplier, which is allocated
+ * when it captures arguments. Operations that only touch an indexed route check {@link #isEnabled()} first
+ * and run uninstrumented while disabled.
+ * Values are read with {@link #snapshot()} or over JMX after {@link #registerMBean()}.
+ */
+public class TicketMetrics {
+
+    public static final String ENABLED_PROPERTY = "ticket.metrics.enabled";
+    public static final String OBJECT_NAME = "com.example:type=TicketMetrics";
+
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private static final LongAdder bytesRead = new LongAdder();
+    private static final LongAdder ticketsParsed = new LongAdder();
+    private static final LongAdder parseErrors = new LongAdder();
+    private static final LongAdder ingestNanos = new LongAdder();
+    private static final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        TicketMetrics.enabled = enabled;
+    }
+
+    /**
+     * @return The start timestamp of an operation, to pass to a {@code record} method.
+     */
+    public static long startTimer() {
+        return enabled ? System.nanoTime() : NOT_STARTED;
+    }
+
+    /**
+     * Records the latency of an operation started with {@link #startTimer()}.
+     *
+     * @param operation The operation name, usually the method name.
+     */
+    public static void recordLatency(String operation, long start) {
+        if (start == NOT_STARTED) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        latencies.computeIfAbsent(operation, k -> new LatencyHistogram()).record(elapsed);
+    }
+
+    /**
+     * Runs an operation and records its latency, see {@link #recordLatency(String, long)}.
+     *
+     * @param operation The operation name; overloads are told apart by a suffix, e.g. {@code getAveragePrice.table}.
+     */
+    public static <T> T time(String operation, Supplier<T> supplier) {
+        long start = startTimer();
+        try {
+            return supplier.get();
+        } finally {
+            recordLatency(operation, start);
+        }
+    }
+
+    /**
+     * Records a finished parse of a document, including its latency under the operation name.
+     *
+     * @param bytes   The size of the parsed input, or a negative value if unknown.
+     * @param tickets The number of parsed tickets.
+     */
+    public static void recordIngest(String operation, long bytes, long tickets, long start) {
+        if (start == NOT_STARTED) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (bytes > 0) {
+            bytesRead.add(bytes);
+            ingestNanos.add(elapsed);
+        }
+        ticketsParsed.add(tickets);
+        latencies.computeIfAbsent(operation, k -> new LatencyHistogram()).record(elapsed);
+    }
+
+    public static void recordParseError() {
+        if (enabled) {
+            parseErrors.increment();
+        }
+    }
+
+    public static Snapshot snapshot() {
+        Map<String, LatencyHistogram.Summary> summaries = new TreeMap<>();
+        latencies.forEach((operation, histogram) -> summaries.put(operation, histogram.summary()));
+        return new Snapshot(bytesRead.sum(), ticketsParsed.sum(), parseErrors.sum(), ingestNanos.sum(), summaries);
+    }
+
+    public static void reset() {
+        bytesRead.reset();
+        ticketsParsed.reset();
+        parseErrors.reset();
+        ingestNanos.reset();
+        latencies.clear();
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server as {@value #OBJECT_NAME}. Registering twice has no effect.
+     */
+    public static void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new StandardMBean(new MBean(), TicketMetricsMBean.class), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Already registered
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Metric values at one point in time.
+     *
+     * @param ingestNanos The time spent reading inputs of known size, the denominator of the ingest throughput.
+     * @param latencies   The latency summaries in nanoseconds by operation name.
+     */
+    public record Snapshot(
+            long bytesRead,
+            long ticketsParsed,
+            long parseErrors,
+            long ingestNanos,
+            Map<String, LatencyHistogram.Summary> latencies
+    ) {
+
+        public double ingestBytesPerSecond() {
+            return ingestNanos == 0 ? 0 : bytesRead * 1e9 / ingestNanos;
+        }
+    }
+
+    private static class MBean implements TicketMetricsMBean {
+
+        @Override
+        public boolean isEnabled() {
+            return TicketMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            TicketMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public long getBytesRead() {
+            return bytesRead.sum();
+        }
+
+        @Override
+        public long getTicketsParsed() {
+            return ticketsParsed.sum();
+        }
+
+        @Override
+        public long getParseErrors() {
+            return parseErrors.sum();
+        }
+
+        @Override
+        public double getIngestBytesPerSecond() {
+            return snapshot().ingestBytesPerSecond();
+        }
+
+        @Override
+        public String[] getOperationLatencies() {
+            return snapshot().latencies().entrySet().stream()
+                    .map(entry -> String.format("%s: count=%d, p50=%.1fus, p90=%.1fus, p99=%.1fus, max=%.1fus",
+                            entry.getKey(), entry.getValue().count(), entry.getValue().p50() / 1e3,
+                            entry.getValue().p90() / 1e3, entry.getValue().p99() / 1e3, entry.getValue().max() / 1e3))
+                    .toArray(String[]::new);
+        }
+
+        @Override
+        public void reset() {
+            TicketMetrics.reset();
+        }
+    }
+}
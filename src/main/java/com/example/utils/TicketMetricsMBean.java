@@ -0,0 +1,26 @@
+package com.example.utils;
+
+/**
+ * JMX view of {@link TicketMetrics}, registered by {@link TicketMetrics#registerMBean()}.
+ */
+public interface TicketMetricsMBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getBytesRead();
+
+    long getTicketsParsed();
+
+    long getParseErrors();
+
+    double getIngestBytesPerSecond();
+
+    /**
+     * @return One line per operation with its call count and latency percentiles in microseconds.
+     */
+    String[] getOperationLatencies();
+
+    void reset();
+}
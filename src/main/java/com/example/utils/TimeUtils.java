@@ -1,40 +1,172 @@
 package com.example.utils;
 
 import java.time.Duration;
-import java.time.ZoneId;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.format.DateTimeParseException;
 
 public class TimeUtils {
 
-    private static final Map<String, String> cityCodeToZoneMap = new HashMap<>();
+    public static final int MINUTES_PER_DAY = 24 * 60;
 
-    static {
-        cityCodeToZoneMap.put("TLV", "Asia/Jerusalem");
-        cityCodeToZoneMap.put("VVO", "Asia/Vladivostok");
-    }
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
 
+    /**
+     * Returns the difference between the current UTC offsets of the origin and the destination.
+     * Offsets change with daylight saving time, so dated flights should use
+     * {@link #getFlightMinutes(String, long, String, long)} instead.
+     */
     public static Duration getTimeZoneCorrection(String origin, String destination) {
-        int offsetDif = getGmtOffset(origin) - getGmtOffset(destination);
-        return Duration.ZERO.plusHours(offsetDif);
+        long now = Math.floorDiv(System.currentTimeMillis(), 60_000L);
+        return Duration.ofMinutes(getGmtOffsetMinutes(origin, now) - getGmtOffsetMinutes(destination, now));
+    }
+
+    /**
+     * Computes the flight time between wall-clock departure and arrival times, each converted to UTC with
+     * the offset in effect at that moment.
+     *
+     * @param localDeparture The departure as local epoch minutes, see {@link #toEpochMinutes(String, String)}.
+     * @param localArrival   The arrival as local epoch minutes.
+     * @return The flight time in minutes.
+     */
+    public static long getFlightMinutes(String origin, long localDeparture, String destination, long localArrival) {
+        return getFlightMinutes(getOffsetTable(origin), localDeparture, getOffsetTable(destination), localArrival);
+    }
+
+    /**
+     * Same as {@link #getFlightMinutes(String, long, String, long)} with the airports' offset tables already
+     * resolved, for loops over many tickets of one route.
+     */
+    public static long getFlightMinutes(ZoneOffsetTable origin, long localDeparture,
+                                        ZoneOffsetTable destination, long localArrival) {
+        return destination.toEpochMinute(localArrival) - origin.toEpochMinute(localDeparture);
+    }
+
+    /**
+     * @param epochMinute The instant as minutes since 1970-01-01T00:00Z.
+     * @return The UTC offset of the city in minutes at that instant.
+     */
+    public static int getGmtOffsetMinutes(String cityCode, long epochMinute) {
+        return getOffsetTable(cityCode).offsetMinutes(epochMinute);
     }
 
-    private static int getGmtOffset(String cityCode) {
-        String zoneIdString = cityCodeToZoneMap.get(cityCode.toUpperCase());
-        if (zoneIdString == null) {
+    /**
+     * Converts a wall-clock time of the city to an instant. Times skipped or repeated by a daylight saving
+     * transition resolve with the offset before the transition.
+     *
+     * @param localEpochMinute The local date-time as minutes since 1970-01-01T00:00 on the same wall clock.
+     * @return The instant as minutes since 1970-01-01T00:00Z.
+     */
+    public static long toUtcEpochMinutes(String cityCode, long localEpochMinute) {
+        return getOffsetTable(cityCode).toEpochMinute(localEpochMinute);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the city code is not in the airport registry.
+     */
+    public static ZoneOffsetTable getOffsetTable(String cityCode) {
+        ZoneOffsetTable offsetTable = AirportZones.getOffsetTable(cityCode);
+        if (offsetTable == null) {
             throw new IllegalArgumentException("City code not recognized: " + cityCode);
         }
+        return offsetTable;
+    }
+
+    /**
+     * Converts a ticket date in "dd.MM.yy" format and a time in "H:mm" format to minutes since
+     * 1970-01-01T00:00 on the same wall clock. Two-digit years resolve to 2000-2099, as with the
+     * "yy" pattern of {@link java.time.format.DateTimeFormatter}.
+     * Parsing is done by hand so that no {@code java.time} objects are created per call.
+     *
+     * @param date The date in "dd.MM.yy" format.
+     * @param time The time in "H:mm" or "HH:mm" format.
+     * @return The local date-time as epoch minutes.
+     * @throws DateTimeParseException if either value is malformed or out of range.
+     */
+    public static int toEpochMinutes(String date, String time) {
+        return (int) (toEpochDay(date) * MINUTES_PER_DAY) + toMinuteOfDay(time);
+    }
+
+    /**
+     * Parses a date in "dd.MM.yy" format to a day count since 1970-01-01.
+     */
+    public static long toEpochDay(String date) {
+        if (date == null || date.length() != 8 || date.charAt(2) != '.' || date.charAt(5) != '.') {
+            throw new DateTimeParseException("Date must be in dd.MM.yy format", String.valueOf(date), 0);
+        }
+        int day = digits(date, 0);
+        int month = digits(date, 3);
+        int year = 2000 + digits(date, 6);
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            throw new DateTimeParseException("Date is out of range", date, 0);
+        }
+        return epochDay(year, month, day);
+    }
+
+    /**
+     * Parses a time in "H:mm" or "HH:mm" format to a minute of the day.
+     */
+    public static int toMinuteOfDay(String time) {
+        int length = time == null ? 0 : time.length();
+        if ((length != 4 && length != 5) || time.charAt(length - 3) != ':') {
+            throw new DateTimeParseException("Time must be in H:mm format", String.valueOf(time), 0);
+        }
+        int hour = length == 4 ? digit(time, 0) : digits(time, 0);
+        int minute = digits(time, length - 2);
+        if (hour > 23 || minute > 59) {
+            throw new DateTimeParseException("Time is out of range", time, 0);
+        }
+        return hour * 60 + minute;
+    }
+
+    /**
+     * Converts a proleptic Gregorian date to a day count since 1970-01-01.
+     */
+    public static long epochDay(int year, int month, int day) {
+        // Shift the year to start in March so that the leap day is the last day of the year
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
 
-        ZoneId zoneId = ZoneId.of(zoneIdString);
-        ZonedDateTime now = ZonedDateTime.now(zoneId);
-        ZoneOffset offset = now.getOffset();
+    /**
+     * Converts a day count since 1970-01-01 to a proleptic Gregorian date.
+     *
+     * @return The date as {@code {year, month, day}}.
+     */
+    public static int[] toDate(long epochDay) {
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+        return new int[]{year, month, day};
+    }
 
-        // Convert offset to +3, -5, etc.
-        int totalSeconds = offset.getTotalSeconds();
+    /**
+     * @return The number of days of the month in the proleptic Gregorian calendar.
+     */
+    public static int daysInMonth(int year, int month) {
+        if (month == 2 && (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0))) {
+            return 29;
+        }
+        return DAYS_IN_MONTH[month - 1];
+    }
 
-        // Return hours
-        return totalSeconds / 3600;
+    private static int digits(String value, int index) {
+        return digit(value, index) * 10 + digit(value, index + 1);
+    }
+
+    private static int digit(String value, int index) {
+        int digit = value.charAt(index) - '0';
+        if (digit < 0 || digit > 9) {
+            throw new DateTimeParseException("Unexpected character", value, index);
+        }
+        return digit;
     }
 }
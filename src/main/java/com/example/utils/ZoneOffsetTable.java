@@ -0,0 +1,126 @@
+package com.example.utils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+/**
+ * UTC offsets of one time zone precompiled from its {@link ZoneRules} into primitive arrays, so that the offset
+ * at any minute is found by a binary search over the zone's transitions instead of a {@code java.time} lookup.
+ * <p>
+ * Transitions between 1900 and 2100 are tabulated; outside that range the zone rules are consulted directly.
+ * Offsets are truncated to whole minutes. Instances are immutable and thread-safe.
+ */
+public class ZoneOffsetTable {
+
+    private static final long FROM_EPOCH_MINUTE = Instant.parse("1900-01-01T00:00:00Z").getEpochSecond() / 60;
+    private static final long TO_EPOCH_MINUTE = Instant.parse("2100-01-01T00:00:00Z").getEpochSecond() / 60;
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    // UTC epoch minutes from which offsets[i + 1] applies
+    private final long[] transitions;
+    // Local epoch minutes from which offsets[i + 1] applies to a wall-clock time
+    private final long[] localTransitions;
+    private final int[] offsets;
+
+    private ZoneOffsetTable(ZoneId zone, ZoneRules rules, long[] transitions, long[] localTransitions,
+                            int[] offsets) {
+        this.zone = zone;
+        this.rules = rules;
+        this.transitions = transitions;
+        this.localTransitions = localTransitions;
+        this.offsets = offsets;
+    }
+
+    public static ZoneOffsetTable of(ZoneId zone) {
+        ZoneRules rules = zone.getRules();
+        Instant from = Instant.ofEpochSecond(FROM_EPOCH_MINUTE * 60);
+        Instant to = Instant.ofEpochSecond(TO_EPOCH_MINUTE * 60);
+
+        long[] transitions = new long[16];
+        long[] localTransitions = new long[16];
+        int[] offsets = new int[17];
+        offsets[0] = toMinutes(rules.getOffset(from));
+        int count = 0;
+        for (ZoneOffsetTransition transition = rules.nextTransition(from);
+             transition != null && transition.getInstant().isBefore(to);
+             transition = rules.nextTransition(transition.getInstant())) {
+            if (count == transitions.length) {
+                transitions = Arrays.copyOf(transitions, count * 2);
+                localTransitions = Arrays.copyOf(localTransitions, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2 + 1);
+            }
+            int before = toMinutes(transition.getOffsetBefore());
+            int after = toMinutes(transition.getOffsetAfter());
+            long instant = Math.floorDiv(transition.getInstant().getEpochSecond(), 60);
+            transitions[count] = instant;
+            // Wall-clock times in a gap or an overlap keep the earlier offset, as in ZoneRules.getOffset(LocalDateTime)
+            localTransitions[count] = instant + Math.max(before, after);
+            offsets[++count] = after;
+        }
+        return new ZoneOffsetTable(zone, rules, Arrays.copyOf(transitions, count),
+                Arrays.copyOf(localTransitions, count), Arrays.copyOf(offsets, count + 1));
+    }
+
+    public ZoneId zone() {
+        return zone;
+    }
+
+    /**
+     * @param epochMinute The instant as minutes since 1970-01-01T00:00Z.
+     * @return The offset from UTC in minutes at that instant.
+     */
+    public int offsetMinutes(long epochMinute) {
+        if (epochMinute < FROM_EPOCH_MINUTE || epochMinute >= TO_EPOCH_MINUTE) {
+            return toMinutes(rules.getOffset(Instant.ofEpochSecond(epochMinute * 60)));
+        }
+        return offsets[upperBound(transitions, epochMinute)];
+    }
+
+    /**
+     * Returns the offset of a wall-clock time. A time skipped by a gap or repeated by an overlap resolves to
+     * the offset before the transition, like {@link ZoneRules#getOffset(LocalDateTime)}.
+     *
+     * @param localEpochMinute The local date-time as minutes since 1970-01-01T00:00 on the same wall clock.
+     * @return The offset from UTC in minutes.
+     */
+    public int localOffsetMinutes(long localEpochMinute) {
+        if (localEpochMinute < FROM_EPOCH_MINUTE || localEpochMinute >= TO_EPOCH_MINUTE) {
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(localEpochMinute * 60, 0, ZoneOffset.UTC);
+            return toMinutes(rules.getOffset(dateTime));
+        }
+        return offsets[upperBound(localTransitions, localEpochMinute)];
+    }
+
+    /**
+     * @param localEpochMinute The local date-time as minutes since 1970-01-01T00:00 on the same wall clock.
+     * @return The instant as minutes since 1970-01-01T00:00Z.
+     */
+    public long toEpochMinute(long localEpochMinute) {
+        return localEpochMinute - localOffsetMinutes(localEpochMinute);
+    }
+
+    // Number of values not greater than the key, i.e. the index of the offset in effect
+    private static int upperBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int toMinutes(ZoneOffset offset) {
+        return offset.getTotalSeconds() / 60;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.service;
+
+import com.example.model.DepartureIndex;
+import com.example.model.RouteStats;
+import com.example.model.Ticket;
+import com.example.model.TicketTable;
+import com.example.utils.TimeUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DepartureIndexTest {
+
+    private final TicketService ticketService = new TicketService();
+
+    @Test
+    @DisplayName("should restrict route queries to the departure window")
+    void shouldMatchFilteredQueries() {
+        // Given
+        List<Ticket> tickets = yearOfFares(new Random(21), 2000);
+        TicketTable table = TicketTable.of(tickets);
+        DepartureIndex listIndex = DepartureIndex.of(tickets);
+        DepartureIndex tableIndex = DepartureIndex.of(table);
+        int from = TimeUtils.toEpochMinutes("04.06.18", "0:00");
+        int to = TimeUtils.toEpochMinutes("11.06.18", "0:00");
+
+        // When
+        List<Ticket> week = ticketService.getTicketsWithOriginAndDestination(tickets, listIndex, "VVO", "TLV", from, to);
+        RouteStats stats = ticketService.getRouteStats(table, tableIndex, "VVO", "TLV", from, to);
+
+        // Then
+        List<Ticket> expected = new ArrayList<>();
+        for (Ticket ticket : ticketService.getTicketsWithOriginAndDestination(tickets, "VVO", "TLV")) {
+            int departure = TimeUtils.toEpochMinutes(ticket.departureDate(), ticket.departureTime());
+            if (departure >= from && departure < to) {
+                expected.add(ticket);
+            }
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), week.size());
+        assertTrue(week.containsAll(expected));
+        assertEquals(expected.size(), tableIndex.count("VVO", "TLV", from, to));
+        assertEquals(ticketService.getMinimalTimeForEachCarrier(expected, "VVO", "TLV"),
+                ticketService.getMinimalTimeForEachCarrier(tickets, listIndex, "VVO", "TLV", from, to));
+        assertEquals(ticketService.getMinimalTimeForEachCarrier(expected, "VVO", "TLV"),
+                ticketService.getMinimalTimeForEachCarrier(table, tableIndex, "VVO", "TLV", from, to));
+        assertEquals(expected.size(), stats.getCount());
+        assertEquals(ticketService.getAveragePrice(expected), stats.getAveragePrice());
+        TicketTable windowTable = ticketService.getTicketsWithOriginAndDestination(table, tableIndex, "VVO", "TLV", from, to);
+        assertEquals(ticketService.getMedianaPrice(expected), ticketService.getMedianaPrice(windowTable));
+    }
+
+    @Test
+    @DisplayName("should order the window by departure with an inclusive start and an exclusive end")
+    void shouldBoundWindow() {
+        // Given
+        List<Ticket> tickets = List.of(
+                ticket("12.05.18", "18:00", "100"),
+                ticket("12.05.18", "6:00", "200"),
+                ticket("13.05.18", "6:00", "300"),
+                ticket("12.05.18", "12:00", "400"));
+        DepartureIndex index = DepartureIndex.of(TicketTable.of(tickets));
+        int from = TimeUtils.toEpochMinutes("12.05.18", "6:00");
+        int to = TimeUtils.toEpochMinutes("13.05.18", "6:00");
+
+        // When
+        int[] rows = index.rows("VVO", "TLV", from, to);
+
+        // Then
+        assertArrayEquals(new int[]{1, 3, 0}, rows);
+        assertEquals(0, index.rows("VVO", "TLV", to, from).length);
+        assertEquals(0, index.rows("TLV", "VVO", from, to).length);
+        assertEquals(4, index.count("VVO", "TLV", Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> ticketService.getMinimalTimeForEachCarrier(
+                TicketTable.of(tickets.subList(0, 2)), index, "VVO", "TLV", from, to));
+    }
+
+    private static List<Ticket> yearOfFares(Random random, int count) {
+        String[] carriers = {"TK", "SU", "S7", "BA"};
+        long firstDay = TimeUtils.epochDay(2018, 1, 1);
+        List<Ticket> tickets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int[] date = TimeUtils.toDate(firstDay + random.nextInt(365));
+            String day = String.format("%02d.%02d.%02d", date[2], date[1], date[0] % 100);
+            String time = random.nextInt(24) + ":" + String.format("%02d", random.nextInt(60));
+            boolean reverse = random.nextInt(4) == 0;
+            tickets.add(new Ticket(reverse ? "TLV" : "VVO", null, reverse ? "VVO" : "TLV", null, day, time,
+                    day, "23:59", carriers[random.nextInt(carriers.length)], 0, String.valueOf(1000 + random.nextInt(9000))));
+        }
+        return tickets;
+    }
+
+    private static Ticket ticket(String departureDate, String departureTime, String price) {
+        return new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", departureDate, departureTime,
+                "13.05.18", "22:10", "TK", 3, price);
+    }
+}
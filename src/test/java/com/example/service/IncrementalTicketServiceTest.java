@@ -0,0 +1,139 @@
+package com.example.service;
+
+import com.example.model.Ticket;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalTicketServiceTest {
+
+    private final TicketService ticketService = new TicketService();
+    private final IncrementalTicketService incrementalService = new IncrementalTicketService();
+
+    private List<Ticket> tickets;
+
+    @BeforeEach
+    void setUp() {
+        tickets = List.of(
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "16:20", "12.05.18", "22:10", "TK", 3, "12400"),
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "17:20", "12.05.18", "23:50", "S7", 1, "13100"),
+                new Ticket("VVO", "Владивосток", "UFA", "Уфа", "12.05.18", "15:15", "12.05.18", "17:45", "TK", 1, "33400"),
+                new Ticket("LRN", "Ларнака", "TLV", "Тель-Авив", "12.05.18", "12:50", "12.05.18", "14:30", "SU", 1, "7000"),
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "6:10", "13.05.18", "0:25", "TK", 2, "11000"),
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "9:40", "12.05.18", "19:25", "BA", 0, "15301"));
+    }
+
+    @Test
+    @DisplayName("should keep route statistics equal to a rescan while tickets are added and removed")
+    void shouldMatchRescanAfterEachChange() {
+        // Given
+        Random random = new Random(42);
+        List<Ticket> current = new ArrayList<>();
+
+        for (int step = 0; step < 500; step++) {
+            // When
+            int action = current.isEmpty() ? 0 : random.nextInt(4);
+            if (action < 2) {
+                Ticket ticket = tickets.get(random.nextInt(tickets.size()));
+                ticket = withPrice(ticket, random.nextInt(20000) + "." + random.nextInt(10));
+                incrementalService.add(ticket);
+                current.add(ticket);
+            } else if (action == 2) {
+                int index = random.nextInt(current.size());
+                current.set(index, incrementalService.updatePrice(current.get(index), random.nextInt(20000) + ".25"));
+            } else {
+                Ticket ticket = current.remove(random.nextInt(current.size()));
+                assertTrue(incrementalService.remove(ticket));
+            }
+
+            // Then
+            assertEquals(current.size(), incrementalService.size());
+            List<Ticket> route = ticketService.getTicketsWithOriginAndDestination(current, "VVO", "TLV");
+            assertEquals(ticketService.getMinimalTimeForEachCarrier(current, "VVO", "TLV"),
+                    incrementalService.getMinimalTimeForEachCarrier("VVO", "TLV"));
+            if (!route.isEmpty()) {
+                assertEquals(ticketService.getAveragePrice(route), incrementalService.getAveragePrice("VVO", "TLV"));
+                assertEquals(ticketService.getMedianaPrice(route), incrementalService.getMedianaPrice("VVO", "TLV"));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should reprice a ticket and leave the statistics unchanged on failed updates")
+    void shouldUpdatePrice() {
+        // Given
+        tickets.forEach(incrementalService::add);
+
+        // When
+        Ticket repriced = incrementalService.updatePrice(tickets.get(5), "9000");
+
+        // Then
+        assertEquals("9000", repriced.price());
+        assertFalse(incrementalService.contains(tickets.get(5)));
+        assertTrue(incrementalService.contains(repriced));
+        assertEquals(new BigDecimal("9000"), incrementalService.getRouteStats("VVO", "TLV").getMinPrice());
+        assertEquals(new BigDecimal("13100"), incrementalService.getRouteStats("VVO", "TLV").getMaxPrice());
+        assertEquals(new BigDecimal("11700"), incrementalService.getMedianaPrice("VVO", "TLV"));
+
+        assertThrows(NumberFormatException.class, () -> incrementalService.updatePrice(repriced, "free"));
+        assertThrows(IllegalArgumentException.class, () -> incrementalService.updatePrice(tickets.get(5), "1"));
+        assertTrue(incrementalService.contains(repriced));
+        assertEquals(tickets.size(), incrementalService.size());
+    }
+
+    @Test
+    @DisplayName("should reject malformed tickets without touching the statistics")
+    void shouldRejectMalformedTickets() {
+        // Given
+        incrementalService.add(tickets.get(0));
+        Ticket newRoute = withPrice(tickets.get(3), "free");
+        Ticket knownRoute = withPrice(tickets.get(1), "100.125");
+
+        // When & Then
+        assertThrows(NumberFormatException.class, () -> incrementalService.add(newRoute));
+        assertThrows(ArithmeticException.class, () -> incrementalService.add(knownRoute));
+        assertNull(incrementalService.getRouteStats("LRN", "TLV"));
+        assertFalse(incrementalService.contains(newRoute));
+        assertFalse(incrementalService.contains(knownRoute));
+        assertEquals(1, incrementalService.size());
+        assertEquals(Map.of("TK", Duration.ofMinutes(350).plus(Duration.ofHours(7))),
+                incrementalService.getMinimalTimeForEachCarrier("VVO", "TLV"));
+        assertEquals(new BigDecimal("12400"), incrementalService.getAveragePrice("VVO", "TLV"));
+    }
+
+    @Test
+    @DisplayName("should forget routes whose tickets were all removed")
+    void shouldForgetEmptyRoutes() {
+        // Given
+        Ticket ticket = tickets.get(3);
+        incrementalService.add(ticket);
+        incrementalService.add(ticket);
+
+        // When
+        assertTrue(incrementalService.remove(ticket));
+
+        // Then
+        assertEquals(Map.of("SU", Duration.ofMinutes(100)), incrementalService.getMinimalTimeForEachCarrier("LRN", "TLV"));
+        assertTrue(incrementalService.remove(ticket));
+        assertFalse(incrementalService.remove(ticket));
+        assertNull(incrementalService.getRouteStats("LRN", "TLV"));
+        assertTrue(incrementalService.getMinimalTimeForEachCarrier("LRN", "TLV").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> incrementalService.getAveragePrice("LRN", "TLV"));
+        assertTrue(incrementalService.isEmpty());
+    }
+
+    private static Ticket withPrice(Ticket ticket, String price) {
+        return new Ticket(ticket.origin(), ticket.originName(), ticket.destination(), ticket.destinationName(),
+                ticket.departureDate(), ticket.departureTime(), ticket.arrivalDate(), ticket.arrivalTime(),
+                ticket.carrier(), ticket.stops(), price);
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.service;
+
+import com.example.model.Itinerary;
+import com.example.model.Ticket;
+import com.example.model.TicketTable;
+import com.example.utils.TimeUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItinerarySearchTest {
+
+    private static final int MIDNIGHT = TimeUtils.toEpochMinutes("12.05.18", "0:00");
+    private static final int DAY = 24 * 60;
+
+    private final Ticket direct = ticket("VVO", "12.05.18", "8:00", "TLV", "12.05.18", "16:00", "50000");
+    private final Ticket toIstanbul = ticket("VVO", "12.05.18", "6:00", "IST", "12.05.18", "12:00", "20000");
+    private final Ticket fromIstanbul = ticket("IST", "12.05.18", "13:00", "TLV", "12.05.18", "15:00", "15000");
+    private final Ticket toUfa = ticket("VVO", "12.05.18", "7:00", "UFA", "12.05.18", "9:00", "10000");
+    private final Ticket fromUfa = ticket("UFA", "13.05.18", "10:00", "TLV", "13.05.18", "13:00", "10000");
+
+    private final ItinerarySearch search = new ItinerarySearch(
+            TicketTable.of(List.of(direct, fromUfa, toIstanbul, fromIstanbul, toUfa)));
+
+    @Test
+    @DisplayName("should find the earliest arrival through a transfer that respects the connection time")
+    void shouldFindEarliestArrival() {
+        // When
+        Itinerary viaIstanbul = search.findEarliestArrival("VVO", "TLV", MIDNIGHT, 60);
+        Itinerary tooShortTransfer = search.findEarliestArrival("VVO", "TLV", MIDNIGHT, 61);
+
+        // Then
+        assertEquals(List.of(toIstanbul, fromIstanbul), viaIstanbul.legs());
+        assertEquals(1, viaIstanbul.transfers());
+        assertEquals(Duration.ofHours(16), viaIstanbul.duration());
+        assertEquals(new BigDecimal("35000"), viaIstanbul.price());
+        assertEquals(List.of(direct), tooShortTransfer.legs());
+        assertEquals(Duration.ofHours(15), tooShortTransfer.duration());
+    }
+
+    @Test
+    @DisplayName("should find the cheapest journey within the travel time even if it waits overnight")
+    void shouldFindCheapest() {
+        // When
+        Itinerary viaUfa = search.findCheapest("VVO", "TLV", MIDNIGHT, 60, 2 * DAY);
+        Itinerary afterUfaDeparture = search.findCheapest("VVO", "TLV", MIDNIGHT + 7 * 60 + 1, 60, 2 * DAY);
+        Itinerary sameDay = search.findCheapest("VVO", "TLV", MIDNIGHT, 60, DAY);
+
+        // Then
+        assertEquals(List.of(toUfa, fromUfa), viaUfa.legs());
+        assertEquals(Duration.ofHours(37), viaUfa.duration());
+        assertEquals(new BigDecimal("20000"), viaUfa.price());
+        assertEquals(List.of(direct), afterUfaDeparture.legs());
+        assertEquals(List.of(toIstanbul, fromIstanbul), sameDay.legs());
+        assertEquals(List.of(direct), search.findCheapest("VVO", "TLV", MIDNIGHT, 61, DAY).legs());
+        assertNull(search.findCheapest("VVO", "TLV", MIDNIGHT, 60, 15 * 60 - 1));
+    }
+
+    @Test
+    @DisplayName("should return null for unreachable or unknown airports")
+    void shouldReturnNullWhenUnreachable() {
+        assertNull(search.findEarliestArrival("TLV", "VVO", MIDNIGHT, 60));
+        assertNull(search.findCheapest("VVO", "TLV", MIDNIGHT + 24 * 60, 60, 2 * DAY));
+        assertNull(search.findEarliestArrival("VVO", "JFK", MIDNIGHT, 60));
+        assertThrows(IllegalArgumentException.class, () -> search.findCheapest("VVO", "VVO", MIDNIGHT, 60, DAY));
+        assertThrows(IllegalArgumentException.class, () -> search.findCheapest("VVO", "TLV", MIDNIGHT, -1, DAY));
+        assertThrows(IllegalArgumentException.class, () -> search.findCheapest("VVO", "TLV", MIDNIGHT, 60, -1));
+    }
+
+    @Test
+    @DisplayName("should match an exhaustive search on random connections")
+    void shouldMatchExhaustiveSearch() {
+        // Given
+        Random random = new Random(7);
+        String[] airports = {"VVO", "TLV", "IST", "UFA", "LRN", "SVO"};
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            int from = random.nextInt(airports.length);
+            int to = (from + 1 + random.nextInt(airports.length - 1)) % airports.length;
+            int departure = MIDNIGHT + random.nextInt(3 * 24 * 60);
+            int arrival = departure + 60 + random.nextInt(12 * 60);
+            tickets.add(ticket(airports[from], departure, airports[to], arrival, String.valueOf(1000 + random.nextInt(9000))));
+        }
+        TicketTable table = TicketTable.of(tickets);
+        ItinerarySearch randomSearch = new ItinerarySearch(table);
+        int reachable = 0;
+        int inDay = 0;
+
+        for (String origin : airports) {
+            for (String destination : airports) {
+                if (origin.equals(destination)) continue;
+                // When
+                Itinerary earliest = randomSearch.findEarliestArrival(origin, destination, MIDNIGHT, 90);
+                Itinerary cheapest = randomSearch.findCheapest(origin, destination, MIDNIGHT, 90, Integer.MAX_VALUE);
+                Itinerary cheapestInDay = randomSearch.findCheapest(origin, destination, MIDNIGHT, 90, DAY);
+
+                // Then
+                List<List<Ticket>> journeys = new ArrayList<>();
+                enumerate(tickets, origin, destination, TimeUtils.toUtcEpochMinutes(origin, MIDNIGHT), 90, new ArrayList<>(),
+                        new HashSet<>(), journeys);
+                assertEquals(journeys.isEmpty(), earliest == null);
+                assertEquals(journeys.isEmpty(), cheapest == null);
+                if (journeys.isEmpty()) continue;
+                reachable++;
+                long bestArrival = journeys.stream().mapToLong(ItinerarySearchTest::utcArrival).min().orElseThrow();
+                BigDecimal bestPrice = journeys.stream().map(ItinerarySearchTest::price).min(BigDecimal::compareTo).orElseThrow();
+                assertEquals(bestArrival, utcArrival(earliest.legs()));
+                assertEquals(bestPrice, cheapest.price());
+                assertEquals(bestPrice, price(cheapest.legs()));
+                long latestArrival = TimeUtils.toUtcEpochMinutes(origin, MIDNIGHT) + DAY;
+                BigDecimal bestPriceInDay = journeys.stream().filter(journey -> utcArrival(journey) <= latestArrival)
+                        .map(ItinerarySearchTest::price).min(BigDecimal::compareTo).orElse(null);
+                assertEquals(bestPriceInDay, cheapestInDay != null ? cheapestInDay.price() : null);
+                if (cheapestInDay != null) {
+                    assertTrue(utcArrival(cheapestInDay.legs()) <= latestArrival);
+                    inDay++;
+                }
+            }
+        }
+        assertTrue(reachable > airports.length);
+        assertTrue(inDay > 0 && inDay < reachable);
+    }
+
+    /**
+     * Collects every journey without repeated airports, skipping tickets that arrive before they depart.
+     */
+    private static void enumerate(List<Ticket> tickets, String airport, String destination, long readyUtc, int mct,
+                                  List<Ticket> journey, Set<String> visited, List<List<Ticket>> journeys) {
+        if (airport.equals(destination)) {
+            journeys.add(List.copyOf(journey));
+            return;
+        }
+        visited.add(airport);
+        for (Ticket ticket : tickets) {
+            if (!ticket.origin().equals(airport) || visited.contains(ticket.destination())) continue;
+            if (utcDeparture(ticket) < readyUtc || utcArrival(List.of(ticket)) < utcDeparture(ticket)) continue;
+            journey.add(ticket);
+            enumerate(tickets, ticket.destination(), destination, utcArrival(List.of(ticket)) + mct, mct, journey,
+                    visited, journeys);
+            journey.remove(journey.size() - 1);
+        }
+        visited.remove(airport);
+    }
+
+    private static long utcDeparture(Ticket ticket) {
+        return TimeUtils.toUtcEpochMinutes(ticket.origin(),
+                TimeUtils.toEpochMinutes(ticket.departureDate(), ticket.departureTime()));
+    }
+
+    private static long utcArrival(List<Ticket> journey) {
+        Ticket last = journey.get(journey.size() - 1);
+        return TimeUtils.toUtcEpochMinutes(last.destination(),
+                TimeUtils.toEpochMinutes(last.arrivalDate(), last.arrivalTime()));
+    }
+
+    private static BigDecimal price(List<Ticket> journey) {
+        return journey.stream().map(ticket -> new BigDecimal(ticket.price())).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static Ticket ticket(String origin, int departure, String destination, int arrival, String price) {
+        return ticket(origin, date(departure), time(departure), destination, date(arrival), time(arrival), price);
+    }
+
+    private static Ticket ticket(String origin, String departureDate, String departureTime, String destination,
+                                 String arrivalDate, String arrivalTime, String price) {
+        return new Ticket(origin, null, destination, null, departureDate, departureTime, arrivalDate, arrivalTime,
+                "SU", 0, price);
+    }
+
+    private static String date(int epochMinutes) {
+        int[] date = TimeUtils.toDate(Math.floorDiv(epochMinutes, TimeUtils.MINUTES_PER_DAY));
+        return String.format("%02d.%02d.%02d", date[2], date[1], date[0] % 100);
+    }
+
+    private static String time(int epochMinutes) {
+        int minuteOfDay = Math.floorMod(epochMinutes, TimeUtils.MINUTES_PER_DAY);
+        return String.format("%d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
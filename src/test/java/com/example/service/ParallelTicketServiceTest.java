@@ -0,0 +1,89 @@
+package com.example.service;
+
+import com.example.model.Ticket;
+import com.example.model.TicketTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelTicketServiceTest {
+
+    private static final String[] AIRPORTS = {"VVO", "TLV"};
+    private static final String[] CARRIERS = {"TK", "S7", "SU", "BA"};
+
+    private final TicketService ticketService = new TicketService();
+    private ForkJoinPool pool;
+    private ParallelTicketService parallelTicketService;
+    private List<Ticket> tickets;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        parallelTicketService = new ParallelTicketService(ticketService, pool, 1_000);
+
+        Random random = new Random(11);
+        tickets = new ArrayList<>();
+        for (int i = 0; i < 20_001; i++) {
+            String origin = AIRPORTS[random.nextInt(AIRPORTS.length)];
+            String destination = AIRPORTS[random.nextInt(AIRPORTS.length)];
+            int departure = random.nextInt(24 * 60);
+            int arrival = departure + 60 + random.nextInt(20 * 60);
+            tickets.add(new Ticket(origin, origin, destination, destination,
+                    "12.05.18", time(departure), arrival >= 24 * 60 ? "13.05.18" : "12.05.18", time(arrival % (24 * 60)),
+                    CARRIERS[random.nextInt(CARRIERS.length)], random.nextInt(4),
+                    (5_000 + random.nextInt(30_000)) + (random.nextBoolean() ? ".5" : "")));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("should return exactly the sequential results for ticket lists")
+    void shouldMatchSequentialResultsForLists() {
+        List<Ticket> route = ticketService.getTicketsWithOriginAndDestination(tickets, "VVO", "TLV");
+
+        assertEquals(ticketService.getMinimalTimeForEachCarrier(tickets, "VVO", "TLV"),
+                parallelTicketService.getMinimalTimeForEachCarrier(tickets, "VVO", "TLV"));
+        assertEquals(ticketService.getAveragePrice(route), parallelTicketService.getAveragePrice(route));
+        assertEquals(ticketService.getMedianaPrice(route), parallelTicketService.getMedianaPrice(route));
+        assertEquals(ticketService.getMedianaPrice(tickets), parallelTicketService.getMedianaPrice(tickets));
+
+        List<Ticket> precise = new ArrayList<>(tickets);
+        precise.set(0, withPrice(precise.get(0), "100.125"));
+        assertEquals(ticketService.getMedianaPrice(precise), parallelTicketService.getMedianaPrice(precise));
+        assertEquals(ticketService.getAveragePrice(precise), parallelTicketService.getAveragePrice(precise));
+    }
+
+    @Test
+    @DisplayName("should return exactly the sequential results for ticket tables")
+    void shouldMatchSequentialResultsForTables() {
+        TicketTable table = TicketTable.of(tickets);
+        TicketTable route = ticketService.getTicketsWithOriginAndDestination(table, "VVO", "TLV");
+
+        assertEquals(ticketService.getMinimalTimeForEachCarrier(table, "VVO", "TLV"),
+                parallelTicketService.getMinimalTimeForEachCarrier(table, "VVO", "TLV"));
+        assertEquals(ticketService.getAveragePrice(route), parallelTicketService.getAveragePrice(route));
+        assertTrue(parallelTicketService.getMinimalTimeForEachCarrier(table, "VVO", "JFK").isEmpty());
+    }
+
+    private static Ticket withPrice(Ticket ticket, String price) {
+        return new Ticket(ticket.origin(), ticket.originName(), ticket.destination(), ticket.destinationName(),
+                ticket.departureDate(), ticket.departureTime(), ticket.arrivalDate(), ticket.arrivalTime(),
+                ticket.carrier(), ticket.stops(), price);
+    }
+
+    private static String time(int minuteOfDay) {
+        return minuteOfDay / 60 + ":" + String.format("%02d", minuteOfDay % 60);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.service;
+
+import com.example.utils.QuantileSketch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+
+    @Test
+    void smallInputs_areExact() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (long value : new long[]{50, 10, 40, 20, 30}) {
+            sketch.add(value);
+        }
+
+        assertTrue(sketch.isExact());
+        assertEquals(30, sketch.quantile(0.5));
+        assertEquals(50, sketch.quantile(0.99));
+        assertEquals(10, sketch.quantile(0));
+    }
+
+    @Test
+    void largeInputs_stayWithinRankError() {
+        Random random = new Random(7);
+        int size = 200_000;
+        long[] values = new long[size];
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        for (int i = 0; i < size; i++) {
+            values[i] = (long) (random.nextGaussian() * 10_000) + 1_000_000;
+            (i % 2 == 0 ? first : second).add(values[i]);
+        }
+        first.merge(second);
+        Arrays.sort(values);
+
+        assertFalse(first.isExact());
+        assertEquals(size, first.count());
+        for (double q : new double[]{0.01, 0.1, 0.5, 0.9, 0.99}) {
+            long estimate = first.quantile(q);
+            int lowRank = lowerBound(values, estimate);
+            int highRank = lowerBound(values, estimate + 1);
+            double target = q * size;
+            double error = target < lowRank ? lowRank - target : target > highRank ? target - highRank : 0;
+            assertTrue(error / size < 0.02, "rank error too large for q=" + q + ": " + error / size);
+        }
+        assertEquals(values[0], first.min());
+        assertEquals(values[size - 1], first.max());
+    }
+
+    @Test
+    void emptySketch_throws() {
+        assertThrows(IllegalStateException.class, () -> new QuantileSketch().quantile(0.5));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch().quantile(1.5));
+    }
+
+    private static int lowerBound(long[] sorted, long value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && sorted[index - 1] == value) {
+            index--;
+        }
+        return index;
+    }
+}
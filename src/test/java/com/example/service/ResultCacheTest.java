@@ -0,0 +1,62 @@
+package com.example.service;
+
+import com.example.utils.ResultCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+
+    @Test
+    @DisplayName("should evict the least recently used entry when full")
+    void shouldEvictLeastRecentlyUsed() {
+        // Given
+        ResultCache<String, Integer> cache = new ResultCache<>(2, null);
+        AtomicInteger computations = new AtomicInteger();
+
+        // When
+        cache.get("a", k -> computations.incrementAndGet());
+        cache.get("b", k -> computations.incrementAndGet());
+        cache.get("a", k -> computations.incrementAndGet());
+        cache.get("c", k -> computations.incrementAndGet());
+
+        // Then
+        assertEquals(1, cache.get("a", k -> computations.incrementAndGet()));
+        assertEquals(4, cache.get("b", k -> computations.incrementAndGet()));
+        assertEquals(2, cache.size());
+        assertEquals(new ResultCache.Stats(2, 4, 2), cache.stats());
+        assertEquals(1.0 / 3, cache.stats().hitRate(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("should recompute expired entries and not cache failures")
+    void shouldExpireEntries() {
+        // Given
+        AtomicLong clock = new AtomicLong();
+        ResultCache<String, Long> cache = new ResultCache<>(10, Duration.ofSeconds(1), clock::get);
+        cache.get("a", k -> clock.get());
+
+        // When
+        clock.set(Duration.ofMillis(999).toNanos());
+        long cached = cache.get("a", k -> clock.get());
+        clock.set(Duration.ofSeconds(1).toNanos());
+        long recomputed = cache.get("a", k -> clock.get());
+
+        // Then
+        assertEquals(0, cached);
+        assertEquals(Duration.ofSeconds(1).toNanos(), recomputed);
+        assertThrows(IllegalArgumentException.class, () -> cache.get("b", k -> {
+            throw new IllegalArgumentException();
+        }));
+        assertEquals(1, cache.size());
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> new ResultCache<>(0, null));
+        assertThrows(IllegalArgumentException.class, () -> new ResultCache<>(1, Duration.ZERO));
+    }
+}
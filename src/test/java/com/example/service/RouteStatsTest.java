@@ -0,0 +1,182 @@
+package com.example.service;
+
+import com.example.model.Route;
+import com.example.model.RouteStats;
+import com.example.model.Ticket;
+import com.example.model.TicketTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteStatsTest {
+
+    private final TicketService ticketService = new TicketService();
+
+    private List<Ticket> tickets;
+
+    @BeforeEach
+    void setUp() {
+        tickets = List.of(
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "16:20", "12.05.18", "22:10", "TK", 3, "12400"),
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "17:20", "12.05.18", "23:50", "S7", 1, "13100"),
+                new Ticket("VVO", "Владивосток", "UFA", "Уфа", "12.05.18", "15:15", "12.05.18", "17:45", "TK", 1, "33400"),
+                new Ticket("LRN", "Ларнака", "TLV", "Тель-Авив", "12.05.18", "12:50", "12.05.18", "14:30", "SU", 1, "7000"),
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "6:10", "13.05.18", "0:25", "TK", 2, "11000"),
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "9:40", "12.05.18", "19:25", "BA", 0, "15301"));
+    }
+
+    @Test
+    @DisplayName("should match the separate route queries in a single pass")
+    void shouldMatchSeparateQueries() {
+        List<Ticket> route = ticketService.getTicketsWithOriginAndDestination(tickets, "VVO", "TLV");
+
+        RouteStats fromList = ticketService.getRouteStats(tickets, "VVO", "TLV");
+        RouteStats fromStream = ticketService.getRouteStats(tickets.stream(), "VVO", "TLV");
+        RouteStats fromTable = ticketService.getRouteStats(TicketTable.of(tickets), "VVO", "TLV");
+
+        for (RouteStats stats : List.of(fromList, fromStream, fromTable)) {
+            assertEquals(new Route("VVO", "TLV"), stats.getRoute());
+            assertEquals(route.size(), stats.getCount());
+            assertTrue(stats.isExact());
+            assertEquals(ticketService.getMinimalTimeForEachCarrier(tickets, "VVO", "TLV"),
+                    stats.getMinimalTimeForEachCarrier());
+            assertEquals(ticketService.getAveragePrice(route), stats.getAveragePrice());
+            assertEquals(ticketService.getMedianaPrice(route), stats.getMedianaPrice());
+            assertEquals(new BigDecimal("11000"), stats.getMinPrice());
+            assertEquals(new BigDecimal("15301"), stats.getMaxPrice());
+        }
+    }
+
+    @Test
+    @DisplayName("should keep the median exact beyond the sketch capacity unless a sketch is requested")
+    void shouldKeepExactMedianForLargeRoutes() {
+        // Given
+        Random random = new Random(6);
+        List<Ticket> route = new ArrayList<>();
+        for (int i = 0; i < 5001; i++) {
+            route.add(new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "16:20", "12.05.18", "22:10",
+                    "TK", 3, random.nextInt(100_000) + (random.nextBoolean() ? ".5" : "")));
+        }
+
+        // When
+        RouteStats exact = ticketService.getRouteStats(route, "VVO", "TLV");
+        RouteStats sketched = ticketService.getRouteStats(route.stream(), "VVO", "TLV");
+
+        // Then
+        assertTrue(exact.isExact());
+        assertFalse(sketched.isExact());
+        assertEquals(ticketService.getMedianaPrice(route), exact.getMedianaPrice());
+        assertEquals(ticketService.getPercentilePrice(route, 90), exact.getPercentilePrice(90));
+        RouteStats merged = ticketService.getRouteStats(route.subList(0, 2500), "VVO", "TLV")
+                .merge(ticketService.getRouteStats(route.subList(2500, route.size()), "VVO", "TLV"));
+        assertEquals(exact.getMedianaPrice(), merged.getMedianaPrice());
+        assertThrows(IllegalArgumentException.class, () -> exact.merge(sketched));
+    }
+
+    @Test
+    @DisplayName("should order equal prices by scale and reject prices beyond minor units")
+    void shouldOrderEqualPricesByScale() {
+        // Given
+        List<Ticket> route = List.of(withPrice("100.0"), withPrice("100"), withPrice("200"));
+
+        // When
+        RouteStats stats = ticketService.getRouteStats(route, "VVO", "TLV");
+
+        // Then
+        assertEquals(new BigDecimal("100"), ticketService.getMedianaPrice(route));
+        assertEquals(new BigDecimal("100.0"), stats.getMedianaPrice());
+        assertEquals(0, ticketService.getMedianaPrice(route).compareTo(stats.getMedianaPrice()));
+        List<Ticket> precise = List.of(withPrice("100.125"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ticketService.getRouteStats(precise, "VVO", "TLV"));
+        assertTrue(e.getMessage().contains("100.125"));
+        assertEquals(new BigDecimal("100.125"), ticketService.getMedianaPrice(precise));
+    }
+
+    @Test
+    @DisplayName("should produce the same result when partial accumulators are merged")
+    void shouldMergePartialResults() {
+        RouteStats whole = ticketService.getRouteStats(tickets, "VVO", "TLV");
+        RouteStats merged = ticketService.getRouteStats(tickets.subList(0, 3), "VVO", "TLV")
+                .merge(ticketService.getRouteStats(tickets.subList(3, tickets.size()), "VVO", "TLV"));
+
+        assertEquals(whole.getCount(), merged.getCount());
+        assertEquals(whole.getMinimalTimeForEachCarrier(), merged.getMinimalTimeForEachCarrier());
+        assertEquals(whole.getAveragePrice(), merged.getAveragePrice());
+        assertEquals(whole.getMedianaPrice(), merged.getMedianaPrice());
+        assertEquals(whole.getPercentilePrice(90), merged.getPercentilePrice(90));
+        assertThrows(IllegalArgumentException.class,
+                () -> whole.merge(ticketService.getRouteStats(tickets, "VVO", "UFA")));
+    }
+
+    @Test
+    @DisplayName("should report an empty route like the list-based methods")
+    void shouldRejectEmptyAggregates() {
+        RouteStats stats = ticketService.getRouteStats(tickets, "JFK", "TLV");
+
+        assertTrue(stats.isEmpty());
+        assertTrue(stats.getMinimalTimeForEachCarrier().isEmpty());
+        assertThrows(IllegalArgumentException.class, stats::getAveragePrice);
+        assertThrows(IllegalArgumentException.class, stats::getMedianaPrice);
+    }
+
+    @Test
+    @DisplayName("should compute many routes in one pass like the single-route queries")
+    void shouldMatchSingleRouteQueriesInBatch() {
+        // Given
+        ForkJoinPool pool = new ForkJoinPool(3);
+        ParallelTicketService parallelService = new ParallelTicketService(ticketService, pool, 1);
+        TicketTable table = TicketTable.of(tickets);
+        Set<Route> routes = Set.of(new Route("VVO", "TLV"), new Route("LRN", "TLV"), new Route("JFK", "TLV"));
+
+        // When
+        List<Map<Route, RouteStats>> allStats = List.of(ticketService.getAllRouteStats(tickets),
+                ticketService.getAllRouteStats(table), parallelService.getAllRouteStats(tickets),
+                parallelService.getAllRouteStats(table));
+        List<Map<Route, RouteStats>> requestedStats = List.of(ticketService.getRouteStats(tickets, routes),
+                ticketService.getRouteStats(table, routes), parallelService.getRouteStats(tickets, routes),
+                parallelService.getRouteStats(table, routes));
+        pool.shutdown();
+
+        // Then
+        for (Map<Route, RouteStats> stats : allStats) {
+            assertEquals(Set.of(new Route("VVO", "TLV"), new Route("VVO", "UFA"), new Route("LRN", "TLV")),
+                    stats.keySet());
+            assertSameStats(stats);
+        }
+        for (Map<Route, RouteStats> stats : requestedStats) {
+            assertEquals(routes, stats.keySet());
+            assertTrue(stats.get(new Route("JFK", "TLV")).isEmpty());
+            assertSameStats(stats);
+        }
+    }
+
+    private void assertSameStats(Map<Route, RouteStats> stats) {
+        for (Map.Entry<Route, RouteStats> entry : stats.entrySet()) {
+            RouteStats expected = ticketService.getRouteStats(tickets, entry.getKey().origin(), entry.getKey().destination());
+            RouteStats actual = entry.getValue();
+            assertEquals(entry.getKey(), actual.getRoute());
+            assertEquals(expected.getCount(), actual.getCount());
+            assertEquals(expected.getMinimalTimeForEachCarrier(), actual.getMinimalTimeForEachCarrier());
+            if (!expected.isEmpty()) {
+                assertEquals(expected.getAveragePrice(), actual.getAveragePrice());
+                assertEquals(expected.getMedianaPrice(), actual.getMedianaPrice());
+            }
+        }
+    }
+
+    private static Ticket withPrice(String price) {
+        return new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "16:20", "12.05.18", "22:10",
+                "TK", 3, price);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.service;
+
+import com.example.utils.SelectionUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelectionUtilsTest {
+
+    @Test
+    void select_matchesSortedOrder() {
+        Random random = new Random(42);
+        for (int size : new int[]{1, 2, 15, 16, 17, 100, 1001}) {
+            long[] values = random.longs(size, 0, size / 3 + 1).toArray();
+            long[] sorted = values.clone();
+            Arrays.sort(sorted);
+            for (int k = 0; k < size; k += Math.max(1, size / 7)) {
+                long[] copy = values.clone();
+                long expected = sorted[k];
+                assertEquals(expected, SelectionUtils.select(copy, k));
+                assertTrue(Arrays.stream(copy, 0, k).allMatch(v -> v <= expected));
+                assertTrue(Arrays.stream(copy, k, size).allMatch(v -> v >= expected));
+            }
+        }
+    }
+
+    @Test
+    void select_handlesAdversarialInputs() {
+        long[] ascending = new long[10_000];
+        long[] constant = new long[10_000];
+        for (int i = 0; i < ascending.length; i++) {
+            ascending[i] = i;
+            constant[i] = 7;
+        }
+        assertEquals(4_999, SelectionUtils.select(ascending, 4_999));
+        assertEquals(7, SelectionUtils.select(constant, 123));
+    }
+
+    @Test
+    void select_outOfRange_throws() {
+        assertThrows(IllegalArgumentException.class, () -> SelectionUtils.select(new long[3], 3));
+        assertThrows(IllegalArgumentException.class, () -> SelectionUtils.select(new long[0], 0));
+    }
+}
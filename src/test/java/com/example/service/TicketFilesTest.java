@@ -0,0 +1,162 @@
+package com.example.service;
+
+import com.example.enums.TicketDecoderType;
+import com.example.enums.TicketSourceType;
+import com.example.mapper.TicketFiles;
+import com.example.mapper.TicketTableDecoder;
+import com.example.model.Ticket;
+import com.example.model.TicketTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketFilesTest {
+
+    private final TicketService ticketService = new TicketService();
+
+    @TempDir
+    Path tempDir;
+
+    private byte[] json;
+    private List<Ticket> tickets;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("ticket/tickets.json")) {
+            json = inputStream.readAllBytes();
+        }
+        tickets = ticketService.readTickets("ticket/tickets.json", TicketSourceType.FILE);
+    }
+
+    @Test
+    @DisplayName("should read plain and gzip-compressed files from the filesystem")
+    void shouldReadPlainAndGzipFiles() throws IOException {
+        // Given
+        Path plain = Files.write(tempDir.resolve("tickets.json"), json);
+        Path compressed = writeGzip(tempDir.resolve("tickets.data"));
+
+        // When & Then
+        assertEquals(tickets, ticketService.readTickets(plain.toString(), TicketSourceType.PATH));
+        assertEquals(tickets, ticketService.readTickets(compressed.toString(), TicketSourceType.PATH));
+        assertEquals(tickets, rows(ticketService.readTicketTable(compressed.toString(), TicketSourceType.PATH,
+                TicketDecoderType.NATIVE)));
+    }
+
+    @Test
+    @DisplayName("should decode compressed files larger than the decoder buffer")
+    void shouldDecodeLargeGzipFiles() throws IOException {
+        // Given
+        String document = new String(json, StandardCharsets.UTF_8);
+        String ticketArray = document.substring(document.indexOf('[') + 1, document.lastIndexOf(']'));
+        int copies = TicketTableDecoder.DEFAULT_BUFFER_SIZE / ticketArray.length() * 3;
+        String large = "{\"tickets\": [" + String.join(",", Collections.nCopies(copies, ticketArray)) + "]}";
+        Path compressed = writeGzip(tempDir.resolve("large.json.gz"), large.getBytes(StandardCharsets.UTF_8));
+
+        // When
+        TicketTable table = TicketFiles.decodeTable(compressed);
+
+        // Then
+        assertEquals(copies * tickets.size(), table.size());
+        assertEquals(tickets, rows(table).subList(table.size() - tickets.size(), table.size()));
+    }
+
+    @Test
+    @DisplayName("should merge the tickets of all shards of a directory")
+    void shouldMergeShards() throws IOException {
+        // Given
+        Path directory = Files.createDirectory(tempDir.resolve("shards"));
+        Files.write(directory.resolve("part-1.json"), json);
+        writeGzip(directory.resolve("part-2.json.gz"));
+        Files.write(directory.resolve("part-3.json"), json);
+        Files.write(directory.resolve(".part-4.json.crc"), new byte[]{1, 2, 3});
+        List<Ticket> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            expected.addAll(tickets);
+        }
+
+        // When
+        List<Ticket> merged = ticketService.readTickets(directory.toString(), TicketSourceType.DIRECTORY);
+        TicketTable table = ticketService.readTicketTable(directory.toString(), TicketSourceType.DIRECTORY,
+                TicketDecoderType.NATIVE);
+
+        // Then
+        assertEquals(sorted(expected), sorted(merged));
+        assertEquals(expected, rows(table));
+        assertEquals(ticketService.readTicketTable("ticket/tickets.json", TicketSourceType.FILE).airportCount(),
+                table.airportCount());
+    }
+
+    @Test
+    @DisplayName("should stop shard readers when the stream is closed early")
+    void shouldStopReadersOnClose() throws IOException {
+        // Given
+        Path directory = Files.createDirectory(tempDir.resolve("many"));
+        List<Path> shards = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            shards.add(Files.write(directory.resolve("part-" + i + ".json"), json));
+        }
+
+        // When
+        try (Stream<Ticket> stream = TicketFiles.streamTickets(shards, 4)) {
+            // Then
+            assertEquals(5, stream.limit(5).count());
+        }
+    }
+
+    @Test
+    @DisplayName("should report unreadable shards and unsupported compression")
+    void shouldReportFailures() throws IOException {
+        // Given
+        Path directory = Files.createDirectory(tempDir.resolve("broken"));
+        Files.write(directory.resolve("part-1.json"), json);
+        Files.writeString(directory.resolve("part-2.json"), "{\"tickets\": [{\"origin\": ");
+        Path zstd = Files.write(tempDir.resolve("tickets.zst"), new byte[]{0x28, (byte) 0xB5, 0x2F, (byte) 0xFD, 0});
+
+        // When & Then
+        try (Stream<Ticket> stream = TicketFiles.streamTickets(TicketFiles.listShards(directory), 2)) {
+            assertThrows(UncheckedIOException.class, stream::count);
+        }
+        assertThrows(RuntimeException.class,
+                () -> ticketService.readTicketTable(directory.toString(), TicketSourceType.DIRECTORY,
+                        TicketDecoderType.NATIVE));
+        IOException exception = assertThrows(IOException.class, () -> TicketFiles.open(zstd));
+        assertTrue(exception.getMessage().contains("Zstandard"));
+    }
+
+    private Path writeGzip(Path path) throws IOException {
+        return writeGzip(path, json);
+    }
+
+    private static Path writeGzip(Path path, byte[] content) throws IOException {
+        try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(path))) {
+            outputStream.write(content);
+        }
+        return path;
+    }
+
+    private static List<Ticket> sorted(List<Ticket> tickets) {
+        return tickets.stream().sorted(Comparator.comparing(Ticket::toString)).toList();
+    }
+
+    private static List<Ticket> rows(TicketTable table) {
+        return IntStream.range(0, table.size()).mapToObj(table::ticket).toList();
+    }
+}
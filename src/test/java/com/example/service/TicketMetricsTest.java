@@ -0,0 +1,121 @@
+package com.example.service;
+
+import com.example.enums.TicketDecoderType;
+import com.example.enums.TicketSourceType;
+import com.example.model.Ticket;
+import com.example.model.TicketTable;
+import com.example.utils.LatencyHistogram;
+import com.example.utils.TicketMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketMetricsTest {
+
+    private final TicketService ticketService = new TicketService();
+
+    @AfterEach
+    void tearDown() {
+        TicketMetrics.setEnabled(false);
+        TicketMetrics.reset();
+    }
+
+    @Test
+    @DisplayName("should count parsed tickets, bytes, errors and query latencies when enabled")
+    void shouldRecordWhenEnabled() {
+        // Given
+        TicketMetrics.reset();
+        TicketMetrics.setEnabled(true);
+
+        // When
+        List<Ticket> tickets = ticketService.readTickets("ticket/tickets.json", TicketSourceType.FILE);
+        ticketService.readTicketTable("ticket/tickets.json", TicketSourceType.FILE, TicketDecoderType.NATIVE);
+        assertThrows(RuntimeException.class, () -> ticketService.readTickets("{\"tickets\": [1]}", TicketSourceType.API));
+        assertThrows(RuntimeException.class, () -> ticketService.readTickets("ticket/missing.json", TicketSourceType.FILE));
+        ticketService.getAveragePrice(tickets);
+        ticketService.getAveragePrice(tickets);
+        ticketService.getAveragePrice(TicketTable.of(tickets));
+        new ParallelTicketService(ticketService).getAveragePrice(tickets);
+        ticketService.getMinimalTimeForEachCarrier(tickets, "VVO", "TLV");
+
+        // Then
+        TicketMetrics.Snapshot snapshot = TicketMetrics.snapshot();
+        assertEquals(2L * tickets.size(), snapshot.ticketsParsed());
+        assertTrue(snapshot.bytesRead() > 0);
+        assertTrue(snapshot.ingestBytesPerSecond() > 0);
+        assertEquals(1, snapshot.parseErrors());
+        assertEquals(2, snapshot.latencies().get("getAveragePrice.list").count());
+        assertEquals(1, snapshot.latencies().get("getAveragePrice.table").count());
+        assertEquals(1, snapshot.latencies().get("parallel.getAveragePrice.list").count());
+        assertEquals(1, snapshot.latencies().get("getMinimalTimeForEachCarrier.list").count());
+        assertEquals(1, snapshot.latencies().get("decode").count());
+    }
+
+    @Test
+    @DisplayName("should record nothing while disabled")
+    void shouldIgnoreWhenDisabled() {
+        // Given
+        TicketMetrics.reset();
+        long start = TicketMetrics.startTimer();
+        List<Ticket> tickets = ticketService.readTickets("ticket/tickets.json", TicketSourceType.FILE);
+
+        // When
+        TicketMetrics.setEnabled(true);
+        TicketMetrics.recordLatency("started before enabling", start);
+        TicketMetrics.setEnabled(false);
+        ticketService.getMedianaPrice(tickets);
+
+        // Then
+        TicketMetrics.Snapshot snapshot = TicketMetrics.snapshot();
+        assertEquals(0, snapshot.ticketsParsed());
+        assertTrue(snapshot.latencies().isEmpty());
+    }
+
+    @Test
+    @DisplayName("should report percentiles within the bucket precision")
+    void shouldEstimatePercentiles() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // When
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        // Then
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000_000, histogram.max());
+        assertEquals(50_000_500, histogram.mean(), 1e-3);
+        assertEquals(50_000_000, histogram.percentile(50), 50_000_000 / 16.0);
+        assertEquals(99_000_000, histogram.percentile(99), 99_000_000 / 16.0);
+        assertEquals(100_000_000, histogram.percentile(100));
+        assertEquals(0, new LatencyHistogram().percentile(50));
+    }
+
+    @Test
+    @DisplayName("should expose the metrics over JMX")
+    void shouldRegisterMBean() throws Exception {
+        // Given
+        TicketMetrics.registerMBean();
+        TicketMetrics.registerMBean();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(TicketMetrics.OBJECT_NAME);
+
+        // When
+        server.setAttribute(name, new javax.management.Attribute("Enabled", true));
+        ticketService.readTickets("ticket/tickets.json", TicketSourceType.FILE);
+
+        // Then
+        assertTrue(TicketMetrics.isEnabled());
+        assertTrue((Long) server.getAttribute(name, "TicketsParsed") > 0);
+        String[] latencies = (String[]) server.getAttribute(name, "OperationLatencies");
+        assertTrue(latencies[0].startsWith("readTickets: count=1"));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.service;
+
+import com.example.enums.TicketDecoderType;
+import com.example.enums.TicketSourceType;
+import com.example.model.RouteStats;
+import com.example.model.Ticket;
+import com.example.model.TicketDataset;
+import com.example.model.TicketTable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketQueryEngineTest {
+
+    private final TicketService ticketService = new TicketService();
+
+    @Test
+    @DisplayName("should answer like the list-based queries after a load")
+    void shouldMatchListQueries() {
+        // Given
+        List<Ticket> tickets = ticketService.readTickets("ticket/tickets.json", TicketSourceType.FILE);
+        List<Ticket> route = ticketService.getTicketsWithOriginAndDestination(tickets, "VVO", "TLV");
+        TicketQueryEngine engine = new TicketQueryEngine(ticketService);
+
+        // When
+        TicketDataset dataset = engine.load("ticket/tickets.json", TicketSourceType.FILE, TicketDecoderType.NATIVE);
+
+        // Then
+        assertEquals(1, dataset.version());
+        assertSame(dataset, engine.dataset());
+        assertEquals(ticketService.getMinimalTimeForEachCarrier(tickets, "VVO", "TLV"),
+                engine.getMinimalTimeForEachCarrier("VVO", "TLV"));
+        assertEquals(route.size(), engine.getTicketsWithOriginAndDestination("VVO", "TLV").size());
+        assertEquals(ticketService.getAveragePrice(route), engine.getAveragePrice("VVO", "TLV"));
+        assertEquals(ticketService.getMedianaPrice(route), engine.getMedianaPrice("VVO", "TLV"));
+        assertEquals(route.size(), engine.getRouteStats("VVO", "TLV").getCount());
+        assertEquals(route.size(), engine.getRouteStats("VVO", "TLV", Integer.MIN_VALUE, Integer.MAX_VALUE).getCount());
+        assertEquals(ticketService.getMedianaPrice(route),
+                engine.getMedianaPrice("VVO", "TLV", Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> engine.getAveragePrice("VVO", "TLV", 0, 0));
+        assertTrue(engine.getMinimalTimeForEachCarrier("TLV", "VVO").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> engine.getAveragePrice("TLV", "VVO"));
+    }
+
+    @Test
+    @DisplayName("should keep the previous dataset when a reload fails")
+    void shouldKeepDatasetOnFailedReload() {
+        // Given
+        TicketQueryEngine engine = new TicketQueryEngine(ticketService);
+        assertEquals(0, engine.version());
+        assertTrue(engine.dataset().tickets().isEmpty());
+        TicketDataset loaded = engine.load("ticket/tickets.json", TicketSourceType.FILE, TicketDecoderType.JACKSON);
+
+        // When
+        assertThrows(RuntimeException.class,
+                () -> engine.load("ticket/missing.json", TicketSourceType.FILE, TicketDecoderType.NATIVE));
+
+        // Then
+        assertSame(loaded, engine.dataset());
+    }
+
+    @Test
+    @DisplayName("should answer repeated queries from the cache until the next reload")
+    void shouldCacheResultsPerVersion() {
+        // Given
+        TicketQueryEngine engine = new TicketQueryEngine(ticketService, 16, null);
+        assertNull(new TicketQueryEngine().cacheStats());
+        engine.load(TicketTable.of(tickets(10, "100")));
+
+        // When
+        BigDecimal average = engine.getAveragePrice("VVO", "TLV");
+        assertSame(average, engine.getAveragePrice("VVO", "TLV"));
+        assertEquals(engine.getMinimalTimeForEachCarrier("VVO", "TLV"), engine.getMinimalTimeForEachCarrier("VVO", "TLV"));
+        engine.load(TicketTable.of(tickets(10, "300")));
+
+        // Then
+        assertEquals(new BigDecimal("300"), engine.getAveragePrice("VVO", "TLV"));
+        assertEquals(new BigDecimal("300"), engine.getMedianaPrice("VVO", "TLV"));
+        assertThrows(UnsupportedOperationException.class,
+                () -> engine.getMinimalTimeForEachCarrier("VVO", "TLV").clear());
+        assertEquals(2, engine.cacheStats().hits());
+        assertEquals(5, engine.cacheStats().misses());
+    }
+
+    @Test
+    @DisplayName("should let readers see whole generations while datasets are swapped")
+    void shouldReadConsistentGenerationsDuringReloads() throws Exception {
+        // Given
+        TicketTable cheap = TicketTable.of(tickets(10, "100"));
+        TicketTable expensive = TicketTable.of(tickets(30, "300"));
+        TicketQueryEngine engine = new TicketQueryEngine(ticketService);
+        engine.load(cheap);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> readers = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            readers.add(executor.submit(() -> {
+                int queries = 0;
+                long lastVersion = 0;
+                while (running.get() || queries == 0) {
+                    TicketDataset dataset = engine.dataset();
+                    assertTrue(dataset.version() >= lastVersion);
+                    lastVersion = dataset.version();
+                    RouteStats stats = engine.getRouteStats("VVO", "TLV");
+                    boolean cheapStats = stats.getCount() == 10 && stats.getAveragePrice().equals(new BigDecimal("100"));
+                    boolean expensiveStats = stats.getCount() == 30 && stats.getAveragePrice().equals(new BigDecimal("300"));
+                    assertTrue(cheapStats || expensiveStats);
+                    queries++;
+                }
+                return queries;
+            }));
+        }
+        for (int reload = 0; reload < 2000; reload++) {
+            engine.load(reload % 2 == 0 ? expensive : cheap);
+        }
+        running.set(false);
+
+        // Then
+        for (Future<Integer> reader : readers) {
+            assertTrue(reader.get(10, TimeUnit.SECONDS) > 0);
+        }
+        executor.shutdown();
+        assertEquals(2001, engine.version());
+    }
+
+    private static List<Ticket> tickets(int count, String price) {
+        return Collections.nCopies(count,
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "16:20", "12.05.18", "22:10", "TK", 3, price));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.service;
+
+import com.example.enums.TicketSourceType;
+import com.example.model.Ticket;
+import com.example.model.TicketsWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketServerTest {
+
+    private final TicketService ticketService = new TicketService();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("should answer route requests with the one-shot report")
+    void shouldAnswerRequests() {
+        // Given
+        List<Ticket> tickets = ticketService.readTickets("ticket/tickets.json", TicketSourceType.FILE);
+        String report = String.join("\n",
+                TicketServer.formatRouteStats(ticketService.getRouteStats(tickets, "VVO", "TLV")));
+        TicketServer server = new TicketServer(new TicketQueryEngine(ticketService, 16, null), "ticket/tickets.json",
+                TicketSourceType.FILE);
+        server.load();
+
+        // When
+        String stats = server.handle("STATS VVO TLV");
+
+        // Then
+        assertEquals(report, stats);
+        assertSame(stats, server.handle("  STATS   VVO TLV "));
+        assertEquals(report, server.handle("STATS VVO TLV 01.05.18 31.05.18"));
+        assertEquals("ERROR No tickets for route VVO-TLV", server.handle("STATS VVO TLV 01.06.18 30.06.18"));
+        assertEquals("ERROR No tickets for route TLV-VVO", server.handle("STATS TLV VVO"));
+        assertTrue(server.handle("STATS VVO").startsWith("ERROR Usage"));
+        assertTrue(server.handle("STATS VVO TLV 32.05.18 01.06.18").startsWith("ERROR "));
+        assertEquals("ERROR Unknown command: FOO", server.handle("FOO"));
+        assertEquals("PONG", server.handle("PING"));
+        assertEquals("OK version 2 tickets 1", server.handle("RELOAD"));
+        assertEquals(report, server.handle("STATS VVO TLV"));
+    }
+
+    @Test
+    @DisplayName("should report the exact median of routes larger than the sketch capacity")
+    void shouldReportExactMedian() throws Exception {
+        // Given
+        Random random = new Random(22);
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < 5001; i++) {
+            tickets.add(new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "16:20", "12.05.18", "22:10",
+                    "TK", 3, String.valueOf(random.nextInt(100_000))));
+        }
+        Path source = tempDir.resolve("tickets.json");
+        Files.writeString(source, new ObjectMapper().writeValueAsString(new TicketsWrapper(tickets)));
+        TicketServer server = new TicketServer(new TicketQueryEngine(ticketService), source.toString(),
+                TicketSourceType.PATH);
+        server.load();
+
+        // When
+        List<String> report = List.of(server.handle("STATS VVO TLV").split("\n"));
+
+        // Then
+        assertEquals("Mediana price: " + ticketService.getMedianaPrice(tickets), report.get(2));
+        assertEquals(report, List.of(server.handle("STATS VVO TLV 12.05.18 12.05.18").split("\n")));
+    }
+
+    @Test
+    @DisplayName("should terminate every response with an empty line and stop on QUIT")
+    void shouldServeLineProtocol() throws Exception {
+        // Given
+        TicketServer server = new TicketServer(new TicketQueryEngine(ticketService), "ticket/tickets.json",
+                TicketSourceType.FILE);
+        server.load();
+        StringWriter output = new StringWriter();
+
+        // When
+        server.serve(new BufferedReader(new StringReader("PING\n\nFOO\nQUIT\nPING\n")), output);
+
+        // Then
+        assertEquals("PONG\n\nERROR Unknown command: FOO\n\n", output.toString());
+    }
+
+    @Test
+    @DisplayName("should serve clients on a loopback port until shut down")
+    void shouldServeOverSocket() throws Exception {
+        // Given
+        TicketServer server = new TicketServer(new TicketQueryEngine(ticketService), "ticket/tickets.json",
+                TicketSourceType.FILE);
+        server.load();
+        int port = server.start(0);
+
+        // When
+        try (TicketClient first = new TicketClient(port); TicketClient second = new TicketClient(port)) {
+            List<String> report = first.send("STATS VVO TLV");
+
+            // Then
+            assertEquals(List.of("Carrier: TK, minimal flight time: 12 hours 50 min", "Average price: 12400",
+                    "Mediana price: 12400", "Average price - mediana price: 0"), report);
+            assertEquals(report, second.send("STATS VVO TLV"));
+            assertEquals(List.of("PONG"), first.send("PING"));
+            assertEquals(List.of("ERROR No tickets for route TLV-VVO"), second.send("STATS TLV VVO"));
+            assertThrows(EOFException.class, () -> second.send("SHUTDOWN"));
+            server.awaitTermination();
+            assertThrows(IOException.class, () -> first.send("PING"));
+        }
+    }
+}
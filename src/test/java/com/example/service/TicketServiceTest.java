@@ -2,7 +2,9 @@ package com.example.service;
 
 import com.example.enums.TicketSourceType;
 import com.example.mapper.TicketsMapper;
+import com.example.model.RouteIndex;
 import com.example.model.Ticket;
+import com.example.utils.TimeUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,8 +16,16 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -217,4 +227,112 @@ class TicketServiceTest {
         // Then
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    @DisplayName("should return the minimal flight time for each carrier on the route")
+    void shouldReturnMinimalTimeForEachCarrier() {
+        // Given
+        Ticket slowerTk = new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "6:10", "12.05.18", "15:25", "TK", 2, "11000");
+        List<Ticket> tickets = List.of(vvoToTlv1, vvoToTlv2, vvoToUfa, lrnToTlv, slowerTk);
+        // On 12.05.18 Vladivostok is UTC+10 and Tel Aviv is on summer time, UTC+3
+        Duration correction = Duration.ofHours(7);
+
+        // When
+        Map<String, Duration> result = ticketService.getMinimalTimeForEachCarrier(tickets, "VVO", "TLV");
+
+        // Then
+        assertEquals(Map.of(
+                "TK", Duration.ofMinutes(5 * 60 + 50).plus(correction),
+                "S7", Duration.ofMinutes(6 * 60 + 30).plus(correction)), result);
+    }
+
+    @Test
+    @DisplayName("should answer route queries through the route index like a full scan")
+    void shouldAnswerRouteQueriesThroughIndex() {
+        // Given
+        RouteIndex routeIndex = RouteIndex.of(allTickets);
+
+        // When
+        List<Ticket> indexed = ticketService.getTicketsWithOriginAndDestination(allTickets, routeIndex, "VVO", "TLV");
+        List<Ticket> unknown = ticketService.getTicketsWithOriginAndDestination(allTickets, routeIndex, "JFK", "TLV");
+
+        // Then
+        assertEquals(List.of(vvoToTlv1, vvoToTlv2), indexed);
+        assertTrue(unknown.isEmpty());
+        assertEquals(ticketService.getMinimalTimeForEachCarrier(allTickets, "VVO", "TLV"),
+                ticketService.getMinimalTimeForEachCarrier(allTickets, routeIndex, "VVO", "TLV"));
+        assertThrows(IllegalArgumentException.class, () ->
+                ticketService.getTicketsWithOriginAndDestination(List.of(vvoToTlv1), routeIndex, "VVO", "TLV"));
+    }
+
+    @Test
+    @DisplayName("should round the average half up at the largest price scale, also beyond minor units")
+    void shouldReturnAveragePrice() {
+        // When & Then
+        assertEquals(new BigDecimal("100.25"), ticketService.getAveragePrice(withPrices("100.5", "100", "100.25")));
+        assertEquals(new BigDecimal("2"), ticketService.getAveragePrice(withPrices("1", "2")));
+        assertEquals(new BigDecimal("0.128"), ticketService.getAveragePrice(withPrices("0.125", "0.13")));
+        assertEquals(new BigDecimal("92233720368547758"),
+                ticketService.getAveragePrice(withPrices("92233720368547758", "92233720368547758")));
+        assertThrows(IllegalArgumentException.class, () -> ticketService.getAveragePrice(List.of()));
+    }
+
+    private List<Ticket> withPrices(String... prices) {
+        return Arrays.stream(prices)
+                .map(price -> new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "16:20", "12.05.18",
+                        "22:10", "TK", 3, price))
+                .toList();
+    }
+
+    @Test
+    @DisplayName("should return the middle price, or the upper-rounded mean of the two middle prices")
+    void shouldReturnMedianaPrice() {
+        // Given
+        List<Ticket> odd = List.of(vvoToTlv1, vvoToUfa, lrnToTlv);
+        Ticket cheap = new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "16:20", "12.05.18", "22:10", "TK", 3, "12401");
+
+        // When & Then
+        assertEquals(new BigDecimal("12400"), ticketService.getMedianaPrice(odd));
+        assertEquals(new BigDecimal("12751"), ticketService.getMedianaPrice(List.of(cheap, vvoToTlv2)));
+        assertEquals(new BigDecimal("12750"), ticketService.getMedianaPrice(allTickets));
+    }
+
+    @Test
+    @DisplayName("should return the sorted median as written for prices beyond minor units and mixed scales")
+    void shouldKeepMedianaPriceScale() {
+        // When & Then
+        assertEquals(new BigDecimal("2"), ticketService.getMedianaPrice(withPrices("1.125", "2", "3")));
+        assertEquals(new BigDecimal("1.563"), ticketService.getMedianaPrice(withPrices("1.125", "2")));
+        assertEquals(new BigDecimal("300"), ticketService.getMedianaPrice(withPrices("100.25", "300", "400")));
+        assertEquals(new BigDecimal("350"), ticketService.getMedianaPrice(withPrices("100.5", "300", "400", "500")));
+        assertEquals(new BigDecimal("300.00"), ticketService.getMedianaPrice(withPrices("300.00", "300", "1", "400")));
+        assertEquals(new BigDecimal("300"), ticketService.getMedianaPrice(withPrices("300", "300.00", "1")));
+        assertEquals(new BigDecimal("1.125"), ticketService.getPercentilePrice(withPrices("2", "1.125"), 50));
+
+        Random random = new Random(5);
+        String[] values = {"100", "100.0", "100.00", "99.5", "101.25", "250", "7.1"};
+        for (int n = 1; n <= 40; n++) {
+            String[] prices = new String[n];
+            for (int i = 0; i < n; i++) {
+                prices[i] = values[random.nextInt(values.length)];
+            }
+            List<BigDecimal> sorted = new ArrayList<>(Arrays.stream(prices).map(BigDecimal::new).toList());
+            sorted.sort(Comparator.naturalOrder());
+            BigDecimal expected = n % 2 == 1 ? sorted.get(n / 2)
+                    : sorted.get(n / 2 - 1).add(sorted.get(n / 2)).divide(BigDecimal.valueOf(2), RoundingMode.CEILING);
+            assertEquals(expected, ticketService.getMedianaPrice(withPrices(prices)), Arrays.toString(prices));
+        }
+    }
+
+    @Test
+    @DisplayName("should return exact nearest-rank and approximate percentile prices")
+    void shouldReturnPercentilePrices() {
+        // When & Then
+        assertEquals(new BigDecimal("12400"), ticketService.getPercentilePrice(allTickets, 50));
+        assertEquals(new BigDecimal("33400"), ticketService.getPercentilePrice(allTickets, 90));
+        assertEquals(new BigDecimal("7000"), ticketService.getPercentilePrice(allTickets, 1));
+        assertEquals(List.of(new BigDecimal("12400"), new BigDecimal("33400")),
+                ticketService.getApproximatePercentilePrices(allTickets.stream(), 50, 99));
+        assertThrows(IllegalArgumentException.class, () -> ticketService.getPercentilePrice(allTickets, 0));
+    }
 }
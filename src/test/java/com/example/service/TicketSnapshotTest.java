@@ -0,0 +1,98 @@
+package com.example.service;
+
+import com.example.enums.TicketSourceType;
+import com.example.model.Ticket;
+import com.example.model.TicketSnapshot;
+import com.example.model.TicketTable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketSnapshotTest {
+
+    private final TicketService ticketService = new TicketService();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("should map a written snapshot back into an equivalent table")
+    void shouldRoundTripTable() {
+        // Given
+        TicketTable table = ticketService.readTicketTable("ticket/tickets.json", TicketSourceType.FILE);
+        Path path = tempDir.resolve("tickets.snapshot");
+
+        // When
+        ticketService.writeTicketSnapshot(table, path);
+        TicketTable mapped = ticketService.readTicketSnapshot(path);
+
+        // Then
+        assertEquals(rows(table), rows(mapped));
+        assertEquals(table.priceScale(), mapped.priceScale());
+        assertEquals(table.airportName(table.airportId("TLV")), mapped.airportName(mapped.airportId("TLV")));
+        assertEquals(ticketService.getMinimalTimeForEachCarrier(table, "VVO", "TLV"),
+                ticketService.getMinimalTimeForEachCarrier(mapped, "VVO", "TLV"));
+        assertEquals(ticketService.getAveragePrice(table), ticketService.getAveragePrice(mapped));
+        assertEquals(ticketService.getMedianaPrice(table), ticketService.getMedianaPrice(mapped));
+        assertEquals(rows(ticketService.getTicketsWithOriginAndDestination(table, "VVO", "TLV")),
+                rows(ticketService.getTicketsWithOriginAndDestination(mapped, "VVO", "TLV")));
+    }
+
+    @Test
+    @DisplayName("should round-trip empty tables and missing airport names")
+    void shouldRoundTripEdgeCases() throws IOException {
+        // Given
+        TicketTable empty = TicketTable.of(List.of());
+        TicketTable unnamed = TicketTable.of(List.of(
+                new Ticket("VVO", null, "TLV", "Тель-Авив", "12.05.18", "16:20", "12.05.18", "22:10", "TK", 3, "12400.5")));
+        Path emptyPath = tempDir.resolve("empty.snapshot");
+        Path unnamedPath = tempDir.resolve("unnamed.snapshot");
+
+        // When
+        TicketSnapshot.write(empty, emptyPath);
+        TicketSnapshot.write(unnamed, unnamedPath);
+
+        // Then
+        assertTrue(TicketSnapshot.open(emptyPath).isEmpty());
+        assertEquals(rows(unnamed), rows(TicketSnapshot.open(unnamedPath)));
+        assertNull(TicketSnapshot.open(unnamedPath).airportName(0));
+    }
+
+    @Test
+    @DisplayName("should reject files that are not snapshots")
+    void shouldRejectInvalidFiles() throws IOException {
+        // Given
+        Path json = tempDir.resolve("tickets.json");
+        Files.writeString(json, "{\"tickets\": []}" + " ".repeat(200));
+        Path truncated = tempDir.resolve("truncated.snapshot");
+        TicketSnapshot.write(ticketService.readTicketTable("ticket/tickets.json", TicketSourceType.FILE), truncated);
+        byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 8));
+        // The first carrier id, found through the carrier column offset of the header, points past the dictionary
+        ByteBuffer corrupted = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        corrupted.putShort((int) corrupted.getLong(60), Short.MAX_VALUE);
+        Path unknownCarrier = Files.write(tempDir.resolve("carrier.snapshot"), corrupted.array());
+
+        // When & Then
+        assertThrows(IOException.class, () -> TicketSnapshot.open(json));
+        assertThrows(IOException.class, () -> TicketSnapshot.open(truncated));
+        IOException exception = assertThrows(IOException.class, () -> TicketSnapshot.open(unknownCarrier));
+        assertTrue(exception.getMessage().contains("column 2"));
+        assertThrows(RuntimeException.class, () -> ticketService.readTicketSnapshot(tempDir.resolve("missing")));
+    }
+
+    private static List<Ticket> rows(TicketTable table) {
+        return IntStream.range(0, table.size()).mapToObj(table::ticket).toList();
+    }
+}
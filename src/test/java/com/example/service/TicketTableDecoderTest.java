@@ -0,0 +1,169 @@
+package com.example.service;
+
+import com.example.enums.TicketDecoderType;
+import com.example.enums.TicketSourceType;
+import com.example.mapper.TicketDecodingException;
+import com.example.mapper.TicketTableDecoder;
+import com.example.model.Ticket;
+import com.example.model.TicketTable;
+import com.example.utils.PriceUtils;
+import com.example.utils.TimeUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketTableDecoderTest {
+
+    private final TicketService ticketService = new TicketService();
+
+    @Test
+    @DisplayName("should decode the bundled file like the Jackson path")
+    void shouldMatchJacksonOnBundledFile() {
+        // When
+        TicketTable expected = ticketService.readTicketTable("ticket/tickets.json", TicketSourceType.FILE);
+        TicketTable actual = ticketService.readTicketTable("ticket/tickets.json", TicketSourceType.FILE,
+                TicketDecoderType.NATIVE);
+
+        // Then
+        assertEquals(rows(expected), rows(actual));
+        assertEquals(expected.priceScale(), actual.priceScale());
+        assertEquals(expected.airportName(expected.airportId("VVO")), actual.airportName(actual.airportId("VVO")));
+    }
+
+    @Test
+    @DisplayName("should skip unknown fields, accept escapes and fractional prices")
+    void shouldDecodeVariants() throws TicketDecodingException {
+        // Given
+        String json = "{\"meta\": {\"source\": [1, \"x\", null]}, \"tickets\": [ {"
+                + "\"price\": \"100.5\", \"extra\": [true, false], \"origin\": \"V\\u0056O\", "
+                + "\"origin_name\": \"\\u0412\\u043b\\u0430\\u0434\\u0438\\u0432\\u043e\\u0441\\u0442\\u043e\\u043a\", "
+                + "\"destination\": \"TLV\", \"destination_name\": \"Тель-Авив\", "
+                + "\"departure_date\": \"12.05.18\", \"departure_time\": \"6:10\", "
+                + "\"arrival_date\": \"13.05.18\", \"arrival_time\": \"0:25\", \"carrier\": \"TK\", \"stops\": 2}, "
+                + "{\"origin\": \"VVO\", \"origin_name\": null, \"destination\": \"TLV\", \"destination_name\": \"Тель-Авив\", "
+                + "\"departure_date\": \"12.05.18\", \"departure_time\": \"16:20\", "
+                + "\"arrival_date\": \"12.05.18\", \"arrival_time\": \"22:10\", \"carrier\": \"S7\", \"price\": 1.2e4}]}";
+
+        // When
+        TicketTable table = TicketTableDecoder.decode(("﻿" + json).getBytes(StandardCharsets.UTF_8));
+
+        // Then
+        assertEquals(List.of(
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "6:10", "13.05.18", "0:25", "TK", 2, "100.5"),
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "16:20", "12.05.18", "22:10", "S7", 0, "12000.0")),
+                rows(table));
+        assertEquals(2, table.airportCount());
+    }
+
+    @Test
+    @DisplayName("should treat a missing or null tickets field as an empty document")
+    void shouldDecodeEmptyDocuments() throws TicketDecodingException {
+        assertTrue(TicketTableDecoder.decode(bytes("{}")).isEmpty());
+        assertTrue(TicketTableDecoder.decode(bytes("{\"tickets\": null}")).isEmpty());
+        assertTrue(TicketTableDecoder.decode(bytes(" {\"tickets\": [ ] } ")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("should report malformed documents and invalid tickets with their offset")
+    void shouldReportErrors() {
+        String valid = "{\"origin\": \"VVO\", \"destination\": \"TLV\", \"departure_date\": \"12.05.18\", "
+                + "\"departure_time\": \"16:20\", \"arrival_date\": \"12.05.18\", \"arrival_time\": \"22:10\", "
+                + "\"carrier\": \"TK\", \"stops\": 1, \"price\": 12400}";
+
+        TicketDecodingException badDate = assertThrows(TicketDecodingException.class, () -> TicketTableDecoder.decode(
+                bytes("{\"tickets\": [" + valid + ", " + valid.replace("12.05.18", "31.02.18") + "]}")));
+        assertEquals(13 + valid.length() + 2, badDate.getOffset());
+
+        assertThrows(TicketDecodingException.class, () -> TicketTableDecoder.decode(
+                bytes("{\"tickets\": [" + valid.replace("\"stops\": 1", "\"stops\": 200") + "]}")));
+        assertThrows(TicketDecodingException.class, () -> TicketTableDecoder.decode(
+                bytes("{\"tickets\": [" + valid.replace("\"carrier\": \"TK\", ", "") + "]}")));
+        assertThrows(TicketDecodingException.class, () -> TicketTableDecoder.decode(
+                bytes("{\"tickets\": [" + valid + "}")));
+        assertThrows(TicketDecodingException.class, () -> TicketTableDecoder.decode(bytes("[]")));
+    }
+
+    @Test
+    @DisplayName("should decode a stream through a buffer smaller than a ticket like the document in memory")
+    void shouldDecodeStreamsLikeArrays() throws IOException {
+        // Given
+        byte[] json;
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("ticket/tickets.json")) {
+            json = inputStream.readAllBytes();
+        }
+        byte[] malformed = bytes("{\"meta\": \"" + "x".repeat(100) + "\", \"tickets\": [{\"origin\": \"VVO\", }]}");
+
+        // When
+        TicketTable expected = TicketTableDecoder.decode(json);
+        TicketTable actual = TicketTableDecoder.decode(new ByteArrayInputStream(json), 7);
+
+        // Then
+        assertEquals(rows(expected), rows(actual));
+        assertEquals(expected.priceScale(), actual.priceScale());
+        assertEquals(rows(expected), rows(TicketTableDecoder.decode(new ByteArrayInputStream(json))));
+        long offset = assertThrows(TicketDecodingException.class,
+                () -> TicketTableDecoder.decode(malformed)).getOffset();
+        assertEquals(offset, assertThrows(TicketDecodingException.class,
+                () -> TicketTableDecoder.decode(new ByteArrayInputStream(malformed), 5)).getOffset());
+    }
+
+    @Test
+    @DisplayName("should parse dates, times and prices exactly like TimeUtils and PriceUtils")
+    void shouldParseLikeStringParsers() {
+        // Given
+        List<String> dates = List.of("12.05.18", "29.02.20", "29.02.19", "31.04.18", "00.01.18", "31.12.99",
+                "1.05.18", "12-05-18", "12.13.18", "1a.05.18");
+        List<String> times = List.of("0:00", "9:05", "09:05", "23:59", "24:00", "9:60", "9:5", "123:00", "1a:00");
+        List<String> prices = List.of("0", "12400", "100.5", "100.50", "5.", ".5", "100.125", "1.2e4", "-5", "abc",
+                "", "9999999999999999", "99999999999999.99", "999999999999999.99");
+
+        // When / Then
+        for (String date : dates) {
+            for (String time : times) {
+                assertDecodedLikeStrings(date, time, "100");
+            }
+        }
+        for (String price : prices) {
+            assertDecodedLikeStrings("12.05.18", "6:10", price);
+        }
+    }
+
+    private static void assertDecodedLikeStrings(String date, String time, String price) {
+        byte[] json = bytes("{\"tickets\": [{\"origin\": \"VVO\", \"destination\": \"TLV\", "
+                + "\"departure_date\": \"" + date + "\", \"departure_time\": \"" + time + "\", "
+                + "\"arrival_date\": \"" + date + "\", \"arrival_time\": \"" + time + "\", "
+                + "\"carrier\": \"TK\", \"price\": \"" + price + "\"}]}");
+        String values = date + " " + time + " " + price;
+        int minutes;
+        long minorUnits;
+        int scale;
+        try {
+            minutes = TimeUtils.toEpochMinutes(date, time);
+            minorUnits = PriceUtils.toMinorUnits(price);
+            scale = PriceUtils.scaleOf(price);
+        } catch (RuntimeException e) {
+            assertThrows(TicketDecodingException.class, () -> TicketTableDecoder.decode(json), values);
+            return;
+        }
+        TicketTable table = assertDoesNotThrow(() -> TicketTableDecoder.decode(json), values);
+        assertEquals(minutes, table.departure(0), values);
+        assertEquals(minorUnits, table.price(0), values);
+        assertEquals(scale, table.priceScale(), values);
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<Ticket> rows(TicketTable table) {
+        return IntStream.range(0, table.size()).mapToObj(table::ticket).toList();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.service;
+
+import com.example.model.Route;
+import com.example.model.RouteIndex;
+import com.example.model.Ticket;
+import com.example.model.TicketTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketTableTest {
+
+    private final TicketService ticketService = new TicketService();
+
+    private List<Ticket> tickets;
+    private TicketTable table;
+
+    @BeforeEach
+    void setUp() {
+        tickets = List.of(
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "16:20", "12.05.18", "22:10", "TK", 3, "12400"),
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "17:20", "12.05.18", "23:50", "S7", 1, "13100"),
+                new Ticket("VVO", "Владивосток", "UFA", "Уфа", "12.05.18", "15:15", "12.05.18", "17:45", "TK", 1, "33400"),
+                new Ticket("LRN", "Ларнака", "TLV", "Тель-Авив", "12.05.18", "12:50", "12.05.18", "14:30", "SU", 1, "7000"),
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "6:10", "13.05.18", "0:25", "TK", 2, "11000"),
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "31.12.18", "9:40", "31.12.18", "19:25", "BA", 0, "15300"));
+        table = TicketTable.of(tickets);
+    }
+
+    @Test
+    @DisplayName("should materialize every row back into the original ticket")
+    void shouldRoundTripTickets() {
+        assertEquals(tickets.size(), table.size());
+        assertEquals(tickets, IntStream.range(0, table.size()).mapToObj(table::ticket).toList());
+        assertEquals(4, table.airportCount());
+        assertEquals(4, table.carrierCount());
+        assertEquals(-1, table.airportId("JFK"));
+        assertEquals("TLV", table.airportCode(table.destinationId(0)));
+    }
+
+    @Test
+    @DisplayName("should compute the same route analytics as the list-based methods")
+    void shouldMatchListAnalytics() {
+        List<Ticket> route = ticketService.getTicketsWithOriginAndDestination(tickets, "VVO", "TLV");
+        TicketTable routeTable = ticketService.getTicketsWithOriginAndDestination(table, "VVO", "TLV");
+
+        assertEquals(route, IntStream.range(0, routeTable.size()).mapToObj(routeTable::ticket).toList());
+        assertEquals(ticketService.getMinimalTimeForEachCarrier(tickets, "VVO", "TLV"),
+                ticketService.getMinimalTimeForEachCarrier(table, "VVO", "TLV"));
+        assertEquals(ticketService.getAveragePrice(route), ticketService.getAveragePrice(routeTable));
+        assertEquals(ticketService.getMedianaPrice(route), ticketService.getMedianaPrice(routeTable));
+        assertEquals(ticketService.getAveragePrice(tickets), ticketService.getAveragePrice(table));
+        assertEquals(ticketService.getMedianaPrice(tickets), ticketService.getMedianaPrice(table));
+    }
+
+    @Test
+    @DisplayName("should keep fractional prices exact and round aggregates like BigDecimal")
+    void shouldHandleFractionalPrices() {
+        List<Ticket> fractional = List.of(
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "16:20", "12.05.18", "22:10", "TK", 3, "100.25"),
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "17:20", "12.05.18", "23:50", "S7", 1, "100.50"),
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "17:20", "12.05.18", "23:50", "S7", 1, "99.99"),
+                new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "17:20", "12.05.18", "23:50", "SU", 1, "100.01"));
+        TicketTable fractionalTable = TicketTable.of(fractional);
+
+        assertEquals(2, fractionalTable.priceScale());
+        assertEquals(ticketService.getAveragePrice(fractional), ticketService.getAveragePrice(fractionalTable));
+        assertEquals(ticketService.getMedianaPrice(fractional), ticketService.getMedianaPrice(fractionalTable));
+    }
+
+    @Test
+    @DisplayName("should return empty results for unknown routes and reject empty aggregates")
+    void shouldHandleUnknownRoutes() {
+        TicketTable none = ticketService.getTicketsWithOriginAndDestination(table, "JFK", "TLV");
+
+        assertTrue(none.isEmpty());
+        assertTrue(ticketService.getMinimalTimeForEachCarrier(table, "VVO", "JFK").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> ticketService.getAveragePrice(none));
+        assertThrows(IllegalArgumentException.class, () -> ticketService.getMedianaPrice(none));
+    }
+
+    @Test
+    @DisplayName("should reject tickets that cannot be stored in the columns")
+    void shouldRejectInvalidTickets() {
+        Ticket badDate = new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "32.05.18", "16:20", "12.05.18", "22:10", "TK", 3, "12400");
+        Ticket badPrice = new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив", "12.05.18", "16:20", "12.05.18", "22:10", "TK", 3, "12.345");
+
+        assertThrows(IllegalArgumentException.class, () -> TicketTable.of(List.of(badDate)));
+        assertThrows(IllegalArgumentException.class, () -> TicketTable.of(List.of(badPrice)));
+    }
+
+    @Test
+    @DisplayName("should index table rows by route and carrier")
+    void shouldIndexRoutes() {
+        RouteIndex routeIndex = RouteIndex.of(table);
+
+        assertEquals(Set.of(new Route("VVO", "TLV"), new Route("VVO", "UFA"), new Route("LRN", "TLV")),
+                routeIndex.routes());
+        assertArrayEquals(new int[]{0, 1, 4, 5}, routeIndex.rows("VVO", "TLV"));
+        assertArrayEquals(new int[]{0, 4}, routeIndex.carrierRows("VVO", "TLV").get("TK"));
+        assertEquals(ticketService.getMinimalTimeForEachCarrier(table, "VVO", "TLV"),
+                ticketService.getMinimalTimeForEachCarrier(table, routeIndex, "VVO", "TLV"));
+        TicketTable route = ticketService.getTicketsWithOriginAndDestination(table, routeIndex, "VVO", "TLV");
+        assertEquals(ticketService.getAveragePrice(ticketService.getTicketsWithOriginAndDestination(table, "VVO", "TLV")),
+                ticketService.getAveragePrice(route));
+    }
+}
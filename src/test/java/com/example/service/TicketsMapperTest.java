@@ -0,0 +1,75 @@
+package com.example.service;
+
+import com.example.mapper.TicketsMapper;
+import com.example.model.Ticket;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketsMapperTest {
+
+    private static final Ticket VVO_TO_TLV = new Ticket("VVO", "Владивосток", "TLV", "Тель-Авив",
+            "12.05.18", "16:20", "12.05.18", "22:10", "TK", 3, "12400");
+
+    @Test
+    @DisplayName("Streaming and binding readers should return the same tickets")
+    void streamTickets_matchesReadTickets() throws IOException {
+        List<Ticket> bound = TicketsMapper.readTickets("ticket/tickets.json");
+
+        List<Ticket> streamed;
+        try (Stream<Ticket> stream = TicketsMapper.streamTickets("ticket/tickets.json")) {
+            streamed = stream.toList();
+        }
+
+        List<Ticket> consumed = new ArrayList<>();
+        TicketsMapper.readTickets("ticket/tickets.json", consumed::add);
+
+        assertEquals(List.of(VVO_TO_TLV), bound);
+        assertEquals(bound, streamed);
+        assertEquals(bound, consumed);
+    }
+
+    @Test
+    @DisplayName("Should skip unrelated root fields and handle missing tickets")
+    void streamTickets_skipsOtherFields() throws IOException {
+        String json = """
+                {"meta": {"source": "test", "parts": [1, 2]}, "tickets": [
+                  {"origin": "VVO", "origin_name": "Владивосток", "destination": "TLV", "destination_name": "Тель-Авив",
+                   "departure_date": "12.05.18", "departure_time": "16:20", "arrival_date": "12.05.18",
+                   "arrival_time": "22:10", "carrier": "TK", "stops": 3, "price": 12400}
+                ]}
+                """;
+        try (Stream<Ticket> stream = TicketsMapper.streamTickets(new StringReader(json))) {
+            assertEquals(List.of(VVO_TO_TLV), stream.toList());
+        }
+        try (Stream<Ticket> stream = TicketsMapper.streamTickets(new StringReader("{\"tickets\": null}"))) {
+            assertEquals(0, stream.count());
+        }
+        try (Stream<Ticket> stream = TicketsMapper.streamTickets(new StringReader("{}"))) {
+            assertEquals(0, stream.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should surface a malformed ticket while the stream is consumed")
+    void streamTickets_malformedTicket_throws() throws IOException {
+        String json = "{\"tickets\": [{\"origin\": \"VVO\", \"stops\": \"many\"}]}";
+        try (Stream<Ticket> stream = TicketsMapper.streamTickets(new StringReader(json))) {
+            assertThrows(UncheckedIOException.class, stream::toList);
+        }
+    }
+
+    @Test
+    @DisplayName("Should throw IOException when the resource does not exist")
+    void streamTickets_missingResource_throws() {
+        assertThrows(IOException.class, () -> TicketsMapper.streamTickets("ticket/missing.json"));
+    }
+}
@@ -1,9 +1,22 @@
 package com.example.service;
 
+import com.example.utils.AirportZones;
 import com.example.utils.TimeUtils;
+import com.example.utils.ZoneOffsetTable;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,4 +45,86 @@ class TimeUtilsTest {
         );
         assertTrue(ex.getMessage().contains("City code not recognized"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void epochMinutes_matchJavaTimeParsing() {
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd.MM.yy");
+        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("H:mm");
+        String[][] samples = {
+                {"12.05.18", "16:20"}, {"12.05.18", "6:10"}, {"01.01.00", "0:00"},
+                {"29.02.24", "23:59"}, {"31.12.99", "9:05"}, {"01.03.00", "12:00"}
+        };
+        for (String[] sample : samples) {
+            LocalDateTime expected = LocalDateTime.of(
+                    LocalDate.parse(sample[0], dateFormatter),
+                    LocalTime.parse(sample[1], timeFormatter));
+            assertEquals(expected.toEpochSecond(ZoneOffset.UTC) / 60,
+                    TimeUtils.toEpochMinutes(sample[0], sample[1]));
+        }
+    }
+
+    @Test
+    void epochMinutes_malformedValues_throw() {
+        assertThrows(DateTimeParseException.class, () -> TimeUtils.toEpochMinutes("29.02.23", "10:00"));
+        assertThrows(DateTimeParseException.class, () -> TimeUtils.toEpochMinutes("12.13.18", "10:00"));
+        assertThrows(DateTimeParseException.class, () -> TimeUtils.toEpochMinutes("12-05-18", "10:00"));
+        assertThrows(DateTimeParseException.class, () -> TimeUtils.toEpochMinutes("12.05.18", "24:00"));
+        assertThrows(DateTimeParseException.class, () -> TimeUtils.toEpochMinutes("12.05.18", "1:5"));
+    }
+
+    @Test
+    void flightMinutes_useOffsetsAtFlightDate() {
+        // Tel Aviv is UTC+2 in January and UTC+3 in July, Vladivostok is UTC+10 all year
+        long january = TimeUtils.toEpochMinutes("12.01.18", "6:00");
+        long july = TimeUtils.toEpochMinutes("12.07.18", "6:00");
+        assertEquals(6 * 60 + 8 * 60, TimeUtils.getFlightMinutes("VVO", january, "TLV", january + 6 * 60));
+        assertEquals(6 * 60 + 7 * 60, TimeUtils.getFlightMinutes("VVO", july, "tlv", july + 6 * 60));
+
+        // Israel switched to summer time at 02:00 on 23.03.18, so this one-hour wall-clock flight takes no time
+        long beforeSwitch = TimeUtils.toEpochMinutes("23.03.18", "1:30");
+        long afterSwitch = TimeUtils.toEpochMinutes("23.03.18", "3:30");
+        assertEquals(afterSwitch - beforeSwitch - 60, TimeUtils.getFlightMinutes("TLV", beforeSwitch, "TLV", afterSwitch));
+    }
+
+    @Test
+    void flightMinutes_unknownCityCode_throws() {
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> TimeUtils.getFlightMinutes("VVO", 0, "XXX", 60)
+        );
+        assertTrue(ex.getMessage().contains("City code not recognized"));
+    }
+
+    @Test
+    void offsetTable_matchesZoneRules() {
+        Random random = new Random(7);
+        long from = Instant.parse("1890-01-01T00:00:00Z").getEpochSecond() / 60;
+        long to = Instant.parse("2110-01-01T00:00:00Z").getEpochSecond() / 60;
+        for (String code : AirportZones.airportCodes()) {
+            ZoneId zone = AirportZones.getZone(code);
+            ZoneRules rules = zone.getRules();
+            ZoneOffsetTable offsetTable = TimeUtils.getOffsetTable(code);
+            assertEquals(zone, offsetTable.zone());
+
+            for (int i = 0; i < 200; i++) {
+                assertMatchesRules(rules, offsetTable, from + (long) (random.nextDouble() * (to - from)));
+            }
+            // Probe around every transition, where wall-clock times fall into gaps and overlaps
+            for (ZoneOffsetTransition transition : rules.getTransitions()) {
+                long minute = transition.getInstant().getEpochSecond() / 60;
+                for (long delta = -120; delta <= 120; delta += 30) {
+                    assertMatchesRules(rules, offsetTable, minute + delta);
+                }
+            }
+        }
+    }
+
+    private static void assertMatchesRules(ZoneRules rules, ZoneOffsetTable offsetTable, long minute) {
+        int expected = rules.getOffset(Instant.ofEpochSecond(minute * 60)).getTotalSeconds() / 60;
+        assertEquals(expected, offsetTable.offsetMinutes(minute), "instant " + minute);
+
+        LocalDateTime local = LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+        int expectedLocal = rules.getOffset(local).getTotalSeconds() / 60;
+        assertEquals(expectedLocal, offsetTable.localOffsetMinutes(minute), "local " + local);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.service;
+
+import com.example.enums.TicketSourceType;
+import com.example.mapper.TicketDecodingException;
+import com.example.mapper.TolerantTicketParser;
+import com.example.model.Ticket;
+import com.example.model.TicketParseError;
+import com.example.model.TicketParseResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TolerantTicketParserTest {
+
+    private static final String VALID = "{\"origin\": \"VVO\", \"origin_name\": \"Владивосток\", \"destination\": \"TLV\", "
+            + "\"destination_name\": \"Тель-Авив\", \"departure_date\": \"12.05.18\", \"departure_time\": \"16:20\", "
+            + "\"arrival_date\": \"12.05.18\", \"arrival_time\": \"22:10\", \"carrier\": \"TK\", \"stops\": 3, "
+            + "\"price\": 12400}";
+
+    private final TicketService ticketService = new TicketService();
+
+    @Test
+    @DisplayName("should read a valid document like the strict reader")
+    void shouldMatchStrictReader() {
+        // When
+        TicketParseResult result = ticketService.readTicketsTolerant("ticket/tickets.json", TicketSourceType.FILE);
+
+        // Then
+        assertFalse(result.hasErrors());
+        assertEquals(ticketService.readTickets("ticket/tickets.json", TicketSourceType.FILE), result.tickets());
+    }
+
+    @Test
+    @DisplayName("should skip invalid and malformed tickets and report their offsets")
+    void shouldReportBadTickets() throws TicketDecodingException {
+        // Given
+        String badDate = VALID.replace("12.05.18", "31.02.18");
+        String malformed = "{\"origin\": \"VVO\" \"destination\": \"TLV\"}";
+        String prefix = "{\"meta\": {\"tickets\": 1}, \"tickets\": [";
+        String json = prefix + VALID + ", " + badDate + ", " + malformed + ", 42, " + VALID + " " + VALID + "]}";
+
+        // When
+        TicketParseResult result = TolerantTicketParser.parse(utf8(json), "test", 2);
+
+        // Then
+        assertEquals(3, result.tickets().size());
+        List<Long> offsets = result.errors().stream().map(TicketParseError::offset).toList();
+        int badDateOffset = offset(json, prefix.length() + VALID.length() + 2);
+        int malformedOffset = badDateOffset + bytes(badDate) + 2;
+        int numberOffset = malformedOffset + bytes(malformed) + 2;
+        int missingCommaOffset = numberOffset + 4 + bytes(VALID) + 1;
+        assertEquals(List.of((long) badDateOffset, (long) malformedOffset, (long) numberOffset, (long) missingCommaOffset),
+                offsets);
+        assertTrue(result.errors().get(3).message().contains("Expected ','"));
+        assertEquals("test", result.errors().get(0).source());
+    }
+
+    @Test
+    @DisplayName("should keep document order across parallel chunks")
+    void shouldParseChunksInParallel() throws TicketDecodingException {
+        // Given
+        List<String> tickets = new ArrayList<>();
+        for (int i = 0; i < 3 * TolerantTicketParser.CHUNK_SIZE; i++) {
+            tickets.add(i % 100 == 0 ? VALID.replace("12400", "\"free\"") : VALID.replace("12400", String.valueOf(i)));
+        }
+        String json = "{\"tickets\": [" + String.join(",\n", tickets) + "]}";
+
+        // When
+        TicketParseResult result = TolerantTicketParser.parse(utf8(json), "test", 4);
+
+        // Then
+        assertEquals(31, result.errors().size());
+        assertEquals(tickets.size() - 31, result.tickets().size());
+        List<String> prices = result.tickets().stream().map(Ticket::price).toList();
+        assertEquals(prices.stream().sorted((a, b) -> Integer.parseInt(a) - Integer.parseInt(b)).toList(), prices);
+        assertEquals(result.errors().stream().sorted((a, b) -> Long.compare(a.offset(), b.offset())).toList(),
+                result.errors());
+    }
+
+    @Test
+    @DisplayName("should read a stream in windows like the whole document")
+    void shouldCarryTicketsAcrossWindows() throws IOException {
+        // Given
+        List<String> tickets = new ArrayList<>();
+        for (int i = 0; i < 2 * TolerantTicketParser.CHUNK_SIZE + 10; i++) {
+            tickets.add(i % 50 == 0 ? VALID.replace("12400", "12.345") : VALID.replace("12400", String.valueOf(i)));
+        }
+        String json = "{\"meta\": {\"note\": \"]}\"}, \"tickets\": [" + String.join(",\n", tickets) + " " + VALID
+                + ", 42, 7]}";
+        TicketParseResult whole = TolerantTicketParser.parse(utf8(json), "test", 3);
+
+        for (int windowSize : new int[]{1, 7, 100, bytes(VALID) + 1, 64 * 1024}) {
+            // When
+            TicketParseResult windowed = TolerantTicketParser.parse(new ByteArrayInputStream(utf8(json)), "test", 3,
+                    windowSize);
+
+            // Then
+            assertEquals(whole.tickets(), windowed.tickets(), "window " + windowSize);
+            assertEquals(whole.errors(), windowed.errors(), "window " + windowSize);
+        }
+        assertEquals(tickets.size() - 42 + 1, whole.tickets().size());
+        assertEquals(45, whole.errors().size());
+    }
+
+    @Test
+    @DisplayName("should fail only when the tickets array cannot be found")
+    void shouldRejectBrokenDocuments() throws TicketDecodingException {
+        assertTrue(TolerantTicketParser.parse(utf8("{\"tickets\": null}"), "test", 1).tickets().isEmpty());
+        assertTrue(TolerantTicketParser.parse(utf8("{}"), "test", 1).tickets().isEmpty());
+        assertThrows(TicketDecodingException.class, () -> TolerantTicketParser.parse(utf8("[]"), "test", 1));
+        assertThrows(TicketDecodingException.class,
+                () -> TolerantTicketParser.parse(utf8("{\"tickets\": 1}"), "test", 1));
+        assertThrows(RuntimeException.class, () -> ticketService.readTicketsTolerant("{", TicketSourceType.API));
+
+        TicketParseResult truncated = TolerantTicketParser.parse(utf8("{\"tickets\": [" + VALID + ", {\"origin"),
+                "test", 1);
+        assertEquals(1, truncated.tickets().size());
+        assertEquals(List.of("Unterminated ticket"),
+                truncated.errors().stream().map(TicketParseError::message).collect(Collectors.toList()));
+    }
+
+    private static byte[] utf8(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int bytes(String json) {
+        return utf8(json).length;
+    }
+
+    private static int offset(String json, int charIndex) {
+        return bytes(json.substring(0, charIndex));
+    }
+}